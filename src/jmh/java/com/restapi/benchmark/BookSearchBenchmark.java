@@ -0,0 +1,77 @@
+package com.restapi.benchmark;
+
+import com.restapi.controller.library.BookController;
+import com.restapi.model.library.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// A fixed handful of titles carry a rare word, and autocomplete is capped, so result sizes do not grow with the catalog
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BookSearchBenchmark {
+
+    private static final String[] ADJECTIVES = {"Practical", "Modern", "Effective", "Advanced", "Applied", "Essential"};
+    private static final String[] SUBJECTS = {"Java", "Databases", "Algorithms", "Networking", "Compilers", "Testing"};
+    private static final int RARE = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private BookController controller;
+    private String[] isbns;
+
+    @Setup
+    public void setUp() {
+        controller = new BookController();
+        isbns = new String[size];
+        for (int i = 3; i < size; i++) {
+            boolean rare = i % (size / RARE) == 0;
+            String title = ADJECTIVES[i % ADJECTIVES.length] + " " + (rare ? "Zymurgy" : SUBJECTS[i / ADJECTIVES.length % SUBJECTS.length])
+                    + " Volume " + i;
+            isbns[i] = String.format("978-%010d", i);
+            controller.addBook(new Book(null, title, "Author " + i % 5000, isbns[i], 1950 + i % 75));
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> byIsbn() {
+        return controller.getBookByIsbn(isbns[ThreadLocalRandom.current().nextInt(3, size)]);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Book>> autocomplete() {
+        return controller.autocompleteTitle("Modern Comp", 10);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Book>> searchRareWord() {
+        return controller.searchByTitle("zymur");
+    }
+
+    // The search as it was: lower-case every title and look for the query inside it
+    @Benchmark
+    public List<Book> searchRareWordByScan() {
+        String query = "zymur";
+        return controller.getAllBooks().getBody().stream()
+                .filter(book -> book.getTitle().toLowerCase().contains(query))
+                .toList();
+    }
+}
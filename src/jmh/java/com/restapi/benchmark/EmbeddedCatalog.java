@@ -0,0 +1,45 @@
+package com.restapi.benchmark;
+
+import com.restapi.RestApiApplication;
+import com.restapi.model.ecommerce.Product;
+import com.restapi.repository.ecommerce.ProductRepository;
+import com.restapi.service.ecommerce.ProductPriceIndex;
+import com.restapi.service.ecommerce.ProductSearchIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class EmbeddedCatalog {
+
+    private EmbeddedCatalog() {}
+
+    public static ConfigurableApplicationContext start(int catalogSize, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false"));
+        args.addAll(Arrays.asList(extraArgs));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RestApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+
+        ProductRepository repository = context.getBean(ProductRepository.class);
+        List<Product> products = SyntheticCatalog.products(catalogSize);
+        for (int from = 0; from < products.size(); from += 1000) {
+            repository.saveAll(products.subList(from, Math.min(from + 1000, products.size())));
+        }
+        context.getBean(ProductSearchIndex.class).rebuild();
+        context.getBean(ProductPriceIndex.class).rebuild();
+        return context;
+    }
+}
@@ -0,0 +1,132 @@
+package com.restapi.benchmark;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.repository.ecommerce.ProductRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(512)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionModeBenchmark {
+
+    // limited: platform workers with the database permits switched on, which is what the flag does on Java 17
+    @Param({"platform", "limited", "virtual"})
+    private String mode;
+
+    // Tomcat's default server.tomcat.threads.max
+    @Param({"200"})
+    private int platformThreads;
+
+    // Stands in for the Postgres round trip that H2 in memory does not have; the connection is held throughout
+    @Param({"5"})
+    private int ioMillis;
+
+    @Param({"20000"})
+    private int catalogSize;
+
+    // Well below the 512 callers, so they queue for a connection (platform) or a permit (limited, virtual)
+    @Param({"10"})
+    private int poolSize;
+
+    // Applied to both the Hikari connection timeout and the permit timeout; Hikari's floor is 250 ms
+    @Param({"30000", "250"})
+    private long acquireTimeoutMillis;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws Exception {
+        boolean virtual = "virtual".equals(mode);
+        executor = virtual ? newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(platformThreads);
+        context = EmbeddedCatalog.start(catalogSize,
+                "--spring.threads.virtual.enabled=" + !"platform".equals(mode),
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.datasource.hikari.connection-timeout=" + acquireTimeoutMillis,
+                "--products.datasource.acquire-timeout=" + acquireTimeoutMillis + "ms");
+        productRepository = context.getBean(ProductRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long completed;
+        public long timedOut;
+    }
+
+    @Benchmark
+    public List<Product> request(Outcomes outcomes) throws Exception {
+        int page = ThreadLocalRandom.current().nextInt(catalogSize / 20);
+        try {
+            List<Product> products = executor.submit(() -> transactionTemplate.execute(status -> {
+                List<Product> rows = productRepository.findAllBy(PageRequest.of(page, 20));
+                try {
+                    Thread.sleep(ioMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rows;
+            })).get();
+            outcomes.completed++;
+            return products;
+        } catch (ExecutionException e) {
+            // Hikari and the permits both give up with SQLTransientConnectionException
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof SQLTransientConnectionException) {
+                    outcomes.timedOut++;
+                    return List.of();
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+        // The build targets Java 17, so the Java 21 factory is looked up at run time
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Virtual threads need a Java 21+ runtime; run with mode=platform on "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.restapi.benchmark;
+
+import com.restapi.controller.library.BookController;
+import com.restapi.controller.userprofile.UserProfileController;
+import com.restapi.model.library.Book;
+import com.restapi.model.userprofile.UserProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InMemoryControllerBenchmark {
+
+    @Param({"5", "10000"})
+    private int size;
+
+    private UserProfileController userProfileController;
+    private BookController bookController;
+    private long lastUserId;
+    private long lastBookId;
+
+    @Setup
+    public void setUp() {
+        userProfileController = new UserProfileController();
+        bookController = new BookController();
+        for (int i = 5; i < size; i++) {
+            UserProfile user = new UserProfile(null, "user_" + i, "user" + i + "@example.com", "User " + i,
+                    18 + i % 60, i % 2 == 0 ? "USA" : "Canada", "Synthetic user", true);
+            lastUserId = userProfileController.createUser(user).getBody().getData().getUserId();
+            Book book = new Book(null, "Synthetic Book " + i, "Author " + i % 100, "978-" + (1000000000L + i), 1950 + i % 70);
+            lastBookId = bookController.addBook(book).getBody().getId();
+        }
+        if (size <= 5) {
+            lastUserId = 5L;
+            lastBookId = 3L;
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> userById() {
+        return userProfileController.getUserById(lastUserId);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> userByUsername() {
+        return userProfileController.searchByUsername("CHARLIE_DAVIS");
+    }
+
+    @Benchmark
+    public ResponseEntity<?> bookById() {
+        return bookController.getBookById(lastBookId);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> booksByTitle() {
+        return bookController.searchByTitle("design");
+    }
+}
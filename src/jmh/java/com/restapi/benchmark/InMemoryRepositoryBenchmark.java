@@ -0,0 +1,110 @@
+package com.restapi.benchmark;
+
+import com.restapi.model.userprofile.UserProfile;
+import com.restapi.repository.memory.InMemoryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InMemoryRepositoryBenchmark {
+
+    // A handful of ids, so the concurrent writers keep landing on the same entities
+    private static final int HOT_IDS = 16;
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private InMemoryRepository<UserProfile> repository;
+    private List<UserProfile> list;
+    private long initialAgeSum;
+    private int initialCount;
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    @Setup
+    public void setUp() {
+        repository = new InMemoryRepository<>(UserProfile::getUserId, UserProfile::setUserId);
+        list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserProfile user = repository.save(new UserProfile(null, "user_" + i, "user" + i + "@example.com",
+                    "User " + i, 0, "USA", "Synthetic user", true));
+            list.add(user);
+        }
+        initialCount = repository.count();
+        initialAgeSum = ageSum();
+    }
+
+    // Fails the run if concurrent read-modify-write updates or id allocations lost anything
+    @TearDown
+    public void verify() {
+        long lostUpdates = initialAgeSum + updates.sum() - ageSum();
+        if (lostUpdates != 0 || collisions.sum() != 0 || repository.count() != initialCount) {
+            throw new IllegalStateException("Lost " + lostUpdates + " updates, " + collisions.sum()
+                    + " id collisions, " + (repository.count() - initialCount) + " stray entities");
+        }
+    }
+
+    @Benchmark
+    public Optional<UserProfile> findById() {
+        return repository.findById(ThreadLocalRandom.current().nextLong(1, size + 1));
+    }
+
+    // What every controller did before: a stream scan over the list for each id lookup
+    @Benchmark
+    public Optional<UserProfile> listScanById() {
+        long id = ThreadLocalRandom.current().nextLong(1, size + 1);
+        return list.stream().filter(user -> user.getUserId().equals(id)).findFirst();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Optional<UserProfile> concurrentUpdate() {
+        Optional<UserProfile> updated = repository.update(ThreadLocalRandom.current().nextLong(1, HOT_IDS + 1),
+                user -> user.setAge(user.getAge() + 1));
+        updates.increment();
+        return updated;
+    }
+
+    // Deleted right away to keep the heap flat; two creates handed the same id would make one of the deletes miss
+    @Benchmark
+    @Threads(8)
+    public UserProfile concurrentCreate() {
+        UserProfile user = repository.save(new UserProfile(null, "new_user", "new@example.com", "New User", 0, "USA",
+                "Synthetic user", true));
+        if (!repository.deleteById(user.getUserId())) {
+            collisions.increment();
+        }
+        return user;
+    }
+
+    private long ageSum() {
+        long sum = 0;
+        for (UserProfile user : repository.findAll()) {
+            sum += user.getAge();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,76 @@
+package com.restapi.benchmark;
+
+import com.restapi.controller.restaurant.MenuController;
+import com.restapi.model.restaurant.MenuItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Readers list the menu while one writer keeps toggling availability. A reader that ever sees an unavailable item in
+// the available list fails the run, which is what happened when items were flipped in place
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class MenuSnapshotBenchmark {
+
+    private static final String[] CATEGORIES = {"Appetizer", "Main Course", "Dessert", "Beverage", "Salad", "Soup"};
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private MenuController controller;
+
+    @Setup
+    public void setUp() {
+        controller = new MenuController();
+        for (int i = 8; i < size; i++) {
+            controller.addMenuItem(new MenuItem(null, "Dish " + i, "Synthetic dish", 5.0 + i % 20,
+                    CATEGORIES[i % CATEGORIES.length], i % 3 != 0));
+        }
+    }
+
+    @Benchmark
+    @Group("toggling")
+    @GroupThreads(6)
+    public List<MenuItem> readAvailable() {
+        List<MenuItem> items = controller.getAvailableItems(true).getBody();
+        for (MenuItem item : items) {
+            if (!item.isAvailable()) {
+                throw new IllegalStateException("Unavailable item " + item.getId() + " in the available list");
+            }
+        }
+        return items;
+    }
+
+    @Benchmark
+    @Group("toggling")
+    @GroupThreads(1)
+    public ResponseEntity<List<MenuItem>> readCategory() {
+        return controller.getItemsByCategory("dessert");
+    }
+
+    @Benchmark
+    @Group("toggling")
+    @GroupThreads(1)
+    public ResponseEntity<?> toggle() {
+        return controller.toggleAvailability(ThreadLocalRandom.current().nextLong(1, size + 1));
+    }
+}
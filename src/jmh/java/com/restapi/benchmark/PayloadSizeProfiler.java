@@ -0,0 +1,44 @@
+package com.restapi.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.List;
+
+// Reports the last payload size a benchmark recorded as a secondary result, averaged over iterations, so it lands in
+// jmh-results.json next to the timings. Aux counters are summed over iterations or divided into the time, so they
+// cannot carry a size per operation. Benchmarks that record nothing get no extra result
+public class PayloadSizeProfiler implements InternalProfiler {
+
+    private static volatile long lastBytes = -1;
+
+    static void record(long bytes) {
+        lastBytes = bytes;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Payload size recorded by the benchmark";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        lastBytes = -1;
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long bytes = lastBytes;
+        if (bytes < 0) {
+            return List.of();
+        }
+        return List.of(new ScalarResult("payload.bytes", bytes, "bytes", AggregationPolicy.AVG));
+    }
+}
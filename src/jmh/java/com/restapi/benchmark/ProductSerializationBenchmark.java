@@ -0,0 +1,54 @@
+package com.restapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restapi.model.ecommerce.Product;
+import com.restapi.util.ApiResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private ApiResponse<List<Product>> envelope;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        products = SyntheticCatalog.products(size);
+        envelope = new ApiResponse<>(true, "Products retrieved successfully", products);
+    }
+
+    @Benchmark
+    public byte[] productList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] apiResponseEnvelope() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(envelope);
+    }
+}
@@ -0,0 +1,116 @@
+package com.restapi.benchmark;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.repository.ecommerce.ProductRepository;
+import com.restapi.service.ecommerce.ProductSearchIndex;
+import com.restapi.service.ecommerce.ProductService;
+import com.restapi.util.CursorPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+
+    @Param({"20000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private ProductSearchIndex productSearchIndex;
+
+    @Setup
+    public void setUp() {
+        context = EmbeddedCatalog.start(catalogSize);
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        productSearchIndex = context.getBean(ProductSearchIndex.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> searchIndexed() {
+        return productService.searchProducts("gaming", 50);
+    }
+
+    // The index alone, without loading the matched rows
+    @Benchmark
+    public List<Long> indexOnlySearch() {
+        return productSearchIndex.search("gaming", 50);
+    }
+
+    // Too short for a gram of its own
+    @Benchmark
+    public List<Long> indexOnlyShortKeyword() {
+        return productSearchIndex.search("ga", 50);
+    }
+
+    @Benchmark
+    public List<Product> searchLikeScan() {
+        return productRepository.searchByKeyword("gaming");
+    }
+
+    @Benchmark
+    public List<Product> byCategory() {
+        return productService.getProductsByCategory("Garden");
+    }
+
+    @Benchmark
+    public List<Product> byPriceRange() {
+        return productService.getProductsByPriceRange(100.0, 120.0);
+    }
+
+    @Benchmark
+    public List<Product> byPriceRangeDatabase() {
+        return productRepository.findByPriceBetween(100.0, 120.0);
+    }
+
+    @Benchmark
+    public List<Product> cheapest() {
+        return productService.getCheapestProducts(20);
+    }
+
+    @Benchmark
+    public List<Product> byPriceAndBrand() {
+        return productService.filterByPriceAndBrand(999.99, "Brand7");
+    }
+
+    @Benchmark
+    public List<Product> inStock() {
+        return productService.getInStockProducts();
+    }
+
+    @Benchmark
+    public Optional<Product> byIdCached() {
+        return productService.getProductById(1234L);
+    }
+
+    @Benchmark
+    public CursorPage<Product> cursorPageByPrice() {
+        return productService.getProductsAfterCursor(null, "price", 50);
+    }
+}
@@ -0,0 +1,78 @@
+package com.restapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.restapi.model.ecommerce.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(format)).build();
+        products = SyntheticCatalog.products(size);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(size * 64);
+        if (gzip) {
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer, 8192)) {
+                objectMapper.writeValue(out, products);
+            }
+        } else {
+            objectMapper.writeValue(buffer, products);
+        }
+        byte[] payload = buffer.toByteArray();
+        PayloadSizeProfiler.record(payload.length);
+        return payload;
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.restapi.benchmark;
+
+import com.restapi.model.ecommerce.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class SyntheticCatalog {
+
+    public static final String[] CATEGORIES = {
+            "Electronics", "Clothing", "Home", "Garden", "Sports", "Toys", "Books", "Beauty", "Grocery", "Automotive"
+    };
+    public static final String[] WORDS = {
+            "phone", "laptop", "wireless", "cotton", "steel", "organic", "compact", "premium", "portable", "classic",
+            "smart", "leather", "outdoor", "kitchen", "gaming", "travel", "vintage", "ultra", "mini", "pro"
+    };
+
+    private SyntheticCatalog() {}
+
+    public static List<Product> products(int size) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String first = WORDS[random.nextInt(WORDS.length)];
+            String second = WORDS[random.nextInt(WORDS.length)];
+            products.add(new Product(
+                    null,
+                    String.format("%s %s %06d", first, second, i),
+                    "A " + first + " " + second + " item from the synthetic catalog, batch " + (i % 97),
+                    Math.round(random.nextDouble() * 200_000) / 100.0,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    random.nextInt(5) == 0 ? 0 : random.nextInt(500),
+                    "Brand" + random.nextInt(50)));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,83 @@
+package com.restapi.benchmark;
+
+import com.restapi.controller.task.TaskController;
+import com.restapi.model.task.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Most tasks are due over the next few years and a fixed handful are overdue, so every query returns the same
+// number of tasks whatever the size
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TaskScheduleBenchmark {
+
+    private static final String[] PRIORITIES = {"HIGH", "MEDIUM", "LOW"};
+    private static final int OVERDUE = 10;
+    private static final int LIMIT = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private TaskController controller;
+
+    @Setup
+    public void setUp() {
+        controller = new TaskController();
+        // The seeded tasks are all overdue already; completing them keeps the overdue count at OVERDUE
+        for (long id = 1; id <= 5; id++) {
+            controller.markTaskAsCompleted(id);
+        }
+        LocalDate today = LocalDate.now();
+        for (int i = 5; i < size; i++) {
+            boolean overdue = i % (size / OVERDUE) == 0;
+            LocalDate due = overdue ? today.minusDays(1 + i % 30) : today.plusDays(i % 1500);
+            controller.createTask(new Task(null, "Task " + i, "Synthetic task", i % 4 == 0,
+                    PRIORITIES[i % PRIORITIES.length], due.toString()));
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Task>> upcoming() {
+        return controller.getUpcomingTasks(LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Task>> overdue() {
+        return controller.getOverdueTasks(LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Task>> topPriority() {
+        return controller.getTopPriorityTasks(LIMIT);
+    }
+
+    // What the upcoming list would cost without the index: filter and sort every task on each call
+    @Benchmark
+    public List<Task> upcomingByScan() {
+        String today = LocalDate.now().toString();
+        return controller.getAllTasks().getBody().stream()
+                .filter(task -> !task.isCompleted() && task.getDueDate().compareTo(today) >= 0)
+                .sorted(Comparator.comparing(Task::getDueDate))
+                .limit(LIMIT)
+                .toList();
+    }
+}
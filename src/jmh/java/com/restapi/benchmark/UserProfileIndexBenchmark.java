@@ -0,0 +1,64 @@
+package com.restapi.benchmark;
+
+import com.restapi.controller.userprofile.UserProfileController;
+import com.restapi.model.userprofile.UserProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Every query has a result of fixed size, so any growth in time across catalog sizes would come from the lookup itself
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class UserProfileIndexBenchmark {
+
+    private static final String[] COUNTRIES = {"USA", "Canada", "UK", "Australia", "Germany", "France", "India", "Japan"};
+    private static final int RARE = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private UserProfileController controller;
+
+    @Setup
+    public void setUp() {
+        controller = new UserProfileController();
+        for (int i = 5; i < size; i++) {
+            boolean rare = i % (size / RARE) == 0;
+            UserProfile user = new UserProfile(null, "user_" + i, "user" + i + "@example.com", "User " + i,
+                    rare ? 100 + i % 10 : 18 + i % 60, rare ? "Iceland" : COUNTRIES[i % COUNTRIES.length],
+                    "Synthetic user", true);
+            controller.createUser(user);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> byUsername() {
+        return controller.searchByUsername("USER_" + ThreadLocalRandom.current().nextInt(5, size));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> byRareCountry() {
+        return controller.getUsersByCountry("iceland");
+    }
+
+    @Benchmark
+    public ResponseEntity<?> byRareAgeRange() {
+        return controller.getUsersByAgeRange(100, 109);
+    }
+}
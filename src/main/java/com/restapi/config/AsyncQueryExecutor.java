@@ -0,0 +1,94 @@
+package com.restapi.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+@Component
+public class AsyncQueryExecutor {
+
+    @Value("${products.async.core-threads:8}")
+    private int coreThreads;
+
+    @Value("${products.async.max-threads:32}")
+    private int maxThreads;
+
+    @Value("${products.async.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${products.async.timeout:10s}")
+    private Duration timeout;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Autowired
+    private ReplicaRouting replicaRouting;
+
+    private ThreadPoolTaskExecutor executor;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreThreads);
+        executor.setMaxPoolSize(maxThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("product-query-");
+        executor.setTaskDecorator(task -> replicaRouting.propagate(queryMetrics.propagate(task)));
+        executor.initialize();
+
+        // The transaction timeout becomes a JDBC query timeout, so the database stops working on abandoned queries too.
+        // Hibernate rounds the remaining time down to whole seconds, hence the extra second over the request timeout
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setTimeout((int) ((timeout.toMillis() + 999) / 1000) + 1);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public DeferredResult<ResponseEntity<?>> submit(Supplier<ResponseEntity<?>> query) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeout.toMillis(),
+                () -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body("Query did not complete within " + timeout.toMillis() + " ms"));
+        Future<?> future;
+        try {
+            future = executor.submit(() -> {
+                if (result.isSetOrExpired()) {
+                    return;
+                }
+                try {
+                    result.setResult(transactionTemplate.execute(status -> query.get()));
+                } catch (RuntimeException e) {
+                    result.setErrorResult(e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Too many queries in progress, try again later"));
+            return result;
+        }
+        // Runs on timeout, on client disconnect and after normal completion; only the first two find work to cancel
+        result.onCompletion(() -> future.cancel(true));
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+package com.restapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class QueryMetrics {
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("com.restapi.sql.slow");
+    private static final ThreadLocal<RequestQueries> currentRequest = new ThreadLocal<>();
+    private static final List<String> OPERATIONS = List.of("select", "insert", "update", "delete", "with", "batch", "other");
+
+    private final MeterRegistry meterRegistry;
+
+    // Every JDBC statement lands here, so its timers are built once up front instead of going through the
+    // registry per call: [operation] -> {success, error}.
+    private final Map<String, Timer[]> statementTimers = new HashMap<>();
+
+    // Same for the per-request meters, built on a route's first request: "method uri" -> meters
+    private final Map<String, RequestMeters> requestMeters = new ConcurrentHashMap<>();
+
+    @Value("${products.sql.slow-query-threshold:200ms}")
+    private Duration slowQueryThreshold;
+
+    @Value("${products.sql.slow-query-sample-rate:1.0}")
+    private double slowQuerySampleRate;
+
+    public QueryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (String operation : OPERATIONS) {
+            statementTimers.put(operation, new Timer[] {statementTimer(operation, "success"), statementTimer(operation, "error")});
+        }
+    }
+
+    public void recordStatement(String sql, long nanos, boolean failed) {
+        statementTimers.get(operation(sql))[failed ? 1 : 0].record(nanos, TimeUnit.NANOSECONDS);
+
+        RequestQueries request = currentRequest.get();
+        if (request != null) {
+            request.count.increment();
+            request.nanos.add(nanos);
+        }
+
+        if (nanos >= slowQueryThreshold.toNanos() && ThreadLocalRandom.current().nextDouble() < slowQuerySampleRate) {
+            slowQueryLog.warn("Slow SQL ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql);
+        }
+    }
+
+    public void beginRequest() {
+        currentRequest.set(new RequestQueries());
+    }
+
+    public Runnable propagate(Runnable task) {
+        RequestQueries request = currentRequest.get();
+        if (request == null) {
+            return task;
+        }
+        return () -> {
+            RequestQueries previous = currentRequest.get();
+            currentRequest.set(request);
+            try {
+                task.run();
+            } finally {
+                currentRequest.set(previous);
+            }
+        };
+    }
+
+    Object suspendRequest() {
+        RequestQueries request = currentRequest.get();
+        currentRequest.remove();
+        return request;
+    }
+
+    void resumeRequest(Object request) {
+        if (request instanceof RequestQueries) {
+            currentRequest.set((RequestQueries) request);
+        } else {
+            beginRequest();
+        }
+    }
+
+    public void endRequest(String method, String uri) {
+        RequestQueries request = currentRequest.get();
+        currentRequest.remove();
+        if (request == null) {
+            return;
+        }
+        RequestMeters meters = requestMeters.computeIfAbsent(method + " " + uri, key -> new RequestMeters(
+                DistributionSummary.builder("http.server.requests.sql.statements")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry),
+                Timer.builder("http.server.requests.sql.duration")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry)));
+        meters.statements.record(request.count.sum());
+        meters.duration.record(request.nanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer statementTimer(String operation, String outcome) {
+        return Timer.builder("jdbc.statements")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static String operation(String sql) {
+        if (sql == null) {
+            return "batch";
+        }
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        switch (keyword) {
+            case "select":
+            case "insert":
+            case "update":
+            case "delete":
+            case "with":
+                return keyword;
+            default:
+                return "other";
+        }
+    }
+
+    // Shared with the async executor's threads through propagate(), so statements can land from several at once
+    private static class RequestQueries {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+
+    private static class RequestMeters {
+        private final DistributionSummary statements;
+        private final Timer duration;
+
+        RequestMeters(DistributionSummary statements, Timer duration) {
+            this.statements = statements;
+            this.duration = duration;
+        }
+    }
+}
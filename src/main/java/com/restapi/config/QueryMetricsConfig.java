@@ -0,0 +1,65 @@
+package com.restapi.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+@Configuration
+public class QueryMetricsConfig {
+
+    private static final String SUSPENDED_QUERIES_ATTRIBUTE = QueryMetricsConfig.class.getName() + ".queries";
+
+    @Bean
+    public static BeanPostProcessor queryMetricsDataSourcePostProcessor(ObjectProvider<QueryMetrics> queryMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && "dataSource".equals(beanName)) {
+                    return new QueryMetricsDataSource((DataSource) bean, queryMetrics::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public OncePerRequestFilter queryMetricsFilter(QueryMetrics queryMetrics) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected boolean shouldNotFilterAsyncDispatch() {
+                return false;
+            }
+
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                if (isAsyncDispatch(request)) {
+                    queryMetrics.resumeRequest(request.getAttribute(SUSPENDED_QUERIES_ATTRIBUTE));
+                } else {
+                    queryMetrics.beginRequest();
+                }
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    if (request.isAsyncStarted()) {
+                        // Handed off to another thread; the totals are recorded when the response is dispatched
+                        request.setAttribute(SUSPENDED_QUERIES_ATTRIBUTE, queryMetrics.suspendRequest());
+                    } else {
+                        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                        queryMetrics.endRequest(request.getMethod(), pattern == null ? "UNKNOWN" : pattern.toString());
+                    }
+                }
+            }
+        };
+    }
+}
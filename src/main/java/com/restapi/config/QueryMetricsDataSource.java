@@ -0,0 +1,76 @@
+package com.restapi.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+public class QueryMetricsDataSource extends DelegatingDataSource {
+
+    private final Supplier<QueryMetrics> queryMetrics;
+
+    public QueryMetricsDataSource(DataSource target, Supplier<QueryMetrics> queryMetrics) {
+        super(target);
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                        return wrap((Statement) result, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement wrap(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+                    long start = System.nanoTime();
+                    boolean failed = true;
+                    try {
+                        Object result = invoke(statement, method, args);
+                        failed = false;
+                        return result;
+                    } finally {
+                        queryMetrics.get().recordStatement(sql, System.nanoTime() - start, failed);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
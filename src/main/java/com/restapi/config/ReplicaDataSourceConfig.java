@@ -0,0 +1,130 @@
+package com.restapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "products.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    private static final String PIN_COOKIE = "products-primary-pin";
+    private static final String CONSISTENCY_HEADER = "X-Consistency";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("products.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${products.datasource.replica.url}") String url,
+            @Value("${products.datasource.replica.username:#{null}}") String username,
+            @Value("${products.datasource.replica.password:#{null}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username != null ? username : properties.determineUsername())
+                .password(password != null ? password : properties.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${products.datasource.replica.lag-query}") String lagQuery,
+            @Value("${products.datasource.replica.max-lag:2s}") Duration maxLag,
+            MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLag);
+        monitor.check();
+        Gauge.builder("products.datasource.replica.lag", monitor, ReplicaLagMonitor::getLagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        return monitor;
+    }
+
+    // The lazy proxy defers the physical connection to the first statement, by which point the transaction's
+    // read-only flag is known and the routing key can be decided
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReplicaLagMonitor replicaLagMonitor) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaLagMonitor);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public OncePerRequestFilter readYourWritesFilter(@Value("${products.datasource.replica.pin-duration:5s}") Duration pinDuration) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                boolean write = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+                if (write) {
+                    // Lets the client's next reads see this write even when they land on another instance
+                    Cookie cookie = new Cookie(PIN_COOKIE, "1");
+                    cookie.setPath("/");
+                    cookie.setHttpOnly(true);
+                    cookie.setMaxAge((int) Math.max(1, pinDuration.toSeconds()));
+                    response.addCookie(cookie);
+                }
+                ReplicaRouting.pinToPrimary(write || "primary".equalsIgnoreCase(request.getHeader(CONSISTENCY_HEADER))
+                        || hasPinCookie(request));
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    ReplicaRouting.pinToPrimary(false);
+                }
+            }
+        };
+    }
+
+    private static boolean hasPinCookie(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (PIN_COOKIE.equals(cookie.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
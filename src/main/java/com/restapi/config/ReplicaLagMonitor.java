@@ -0,0 +1,71 @@
+package com.restapi.config;
+
+import com.restapi.service.ecommerce.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private volatile double lagSeconds = Double.POSITIVE_INFINITY;
+    private volatile long lastWriteNanos;
+    private volatile boolean written;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${products.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        boolean wasHealthy = isHealthy();
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+        } catch (RuntimeException e) {
+            lagSeconds = Double.POSITIVE_INFINITY;
+            if (wasHealthy) {
+                log.warn("Replica lag check failed, reads fall back to the primary: {}", e.getMessage());
+            }
+            return;
+        }
+        if (wasHealthy != isHealthy()) {
+            if (isHealthy()) {
+                log.info("Replica lag is {} s, reads go to the replica", lagSeconds);
+            } else {
+                log.warn("Replica lag is {} s (limit {} s), reads fall back to the primary", lagSeconds, maxLag.toMillis() / 1000.0);
+            }
+        }
+    }
+
+    // The replica is trusted only with data old enough to have reached it; reads right after a write here stay
+    // on the primary, which also keeps collection ETags from pointing at a body the replica has not caught up to
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lastWriteNanos = System.nanoTime();
+        written = true;
+    }
+
+    public boolean isReplicaUsable() {
+        return isHealthy() && (!written || System.nanoTime() - lastWriteNanos >= maxLag.toNanos());
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    private boolean isHealthy() {
+        return lagSeconds * 1000 <= maxLag.toMillis();
+    }
+}
@@ -0,0 +1,71 @@
+package com.restapi.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.util.function.Supplier;
+
+@Component
+public class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> replicaRequested = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> pinnedToPrimary = new ThreadLocal<>();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Only reads that opt in here may use the replica; repository calls elsewhere, including the read-only
+    // transactions Spring Data opens on its own, keep going to the primary
+    public <T> T read(Supplier<T> query) {
+        Boolean previous = replicaRequested.get();
+        replicaRequested.set(Boolean.TRUE);
+        try {
+            return readOnlyTransaction.execute(status -> query.get());
+        } finally {
+            replicaRequested.set(previous);
+        }
+    }
+
+    public Runnable propagate(Runnable task) {
+        Boolean pinned = pinnedToPrimary.get();
+        if (pinned == null) {
+            return task;
+        }
+        return () -> {
+            Boolean previous = pinnedToPrimary.get();
+            pinnedToPrimary.set(pinned);
+            try {
+                task.run();
+            } finally {
+                pinnedToPrimary.set(previous);
+            }
+        };
+    }
+
+    public static boolean isReplicaRequested() {
+        return Boolean.TRUE.equals(replicaRequested.get());
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(pinnedToPrimary.get());
+    }
+
+    static void pinToPrimary(boolean pinned) {
+        if (pinned) {
+            pinnedToPrimary.set(Boolean.TRUE);
+        } else {
+            pinnedToPrimary.remove();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.restapi.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replica = ReplicaRouting.isReplicaRequested()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReplicaRouting.isPinnedToPrimary()
+                && lagMonitor.isReplicaUsable();
+        return replica ? REPLICA : PRIMARY;
+    }
+}
@@ -0,0 +1,51 @@
+package com.restapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    // Virtual threads remove the worker-thread ceiling, so the permits take over as the bound on concurrent
+    // database work; sized to the pool, requests queue here in FIFO order instead of piling up inside Hikari
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment,
+                                                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && "dataSource".equals(beanName)) {
+                    int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                    int maxConcurrency = environment.getProperty("products.datasource.max-concurrency", Integer.class, poolSize);
+                    Duration acquireTimeout = environment.getProperty("products.datasource.acquire-timeout",
+                            Duration.class, Duration.ofSeconds(30));
+                    ConcurrencyLimitingDataSource dataSource =
+                            new ConcurrencyLimitingDataSource((DataSource) bean, maxConcurrency, acquireTimeout);
+                    meterRegistry.ifAvailable(registry -> bindMetrics(dataSource, registry));
+                    return dataSource;
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static void bindMetrics(ConcurrencyLimitingDataSource dataSource, MeterRegistry registry) {
+        Gauge.builder("products.datasource.permits.available", dataSource, ConcurrencyLimitingDataSource::availablePermits)
+                .register(registry);
+        Gauge.builder("products.datasource.permits.waiting", dataSource, ConcurrencyLimitingDataSource::queueLength)
+                .register(registry);
+        FunctionCounter.builder("products.datasource.permits.timeouts", dataSource, ConcurrencyLimitingDataSource::timeouts)
+                .register(registry);
+    }
+}
@@ -1,13 +1,42 @@
 package com.restapi.controller.ecommerce;
 
+import com.restapi.config.AsyncQueryExecutor;
 import com.restapi.model.ecommerce.Product;
+import com.restapi.model.ecommerce.ProductAggregate;
+import com.restapi.model.ecommerce.ProductPatch;
+import com.restapi.model.ecommerce.ProductQuery;
+import com.restapi.model.ecommerce.StockRequest;
+import com.restapi.model.ecommerce.StockUpdateResult;
+import com.restapi.service.ecommerce.ProductAggregates;
+import com.restapi.service.ecommerce.ProductCatalogVersion;
+import com.restapi.service.ecommerce.ProductChangeBroadcaster;
+import com.restapi.service.ecommerce.ProductChangeLog;
+import com.restapi.service.ecommerce.ProductImportService;
+import com.restapi.service.ecommerce.ProductPatchService;
+import com.restapi.service.ecommerce.ProductQueryService;
 import com.restapi.service.ecommerce.ProductService;
+import com.restapi.service.ecommerce.ProductStockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/products")
@@ -16,100 +45,264 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductStockService productStockService;
+
+    @Autowired
+    private ProductPatchService productPatchService;
+
+    @Autowired
+    private ProductQueryService productQueryService;
+
+    @Autowired
+    private ProductChangeBroadcaster productChangeBroadcaster;
+
+    @Autowired
+    private ProductCatalogVersion productCatalogVersion;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private ProductAggregates productAggregates;
+
+    @Autowired
+    private AsyncQueryExecutor asyncQueryExecutor;
+
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts(
+    public DeferredResult<ResponseEntity<?>> getAllProducts(
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer limit) {
-        
-        if (page != null && limit != null) {
-            Page<Product> productPage = productService.getProductsWithPagination(page, limit);
-            return ResponseEntity.ok(productPage.getContent());
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            WebRequest request) {
+
+        // The tag is read before the query, so a concurrent write can only leave it older than the body
+        if (request.checkNotModified(productCatalogVersion.etag())) {
+            return null;
         }
-        return ResponseEntity.ok(productService.getAllProducts());
+        return asyncQueryExecutor.submit(() -> {
+            if (cursor != null || sort != null) {
+                try {
+                    return ResponseEntity.ok(productService.getProductsAfterCursor(cursor, sort, limit != null ? limit : 20));
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+                }
+            }
+            if (page != null && limit != null) {
+                Page<Product> productPage = productService.getProductsWithPagination(page, limit);
+                return ResponseEntity.ok(productPage.getContent());
+            }
+            return ResponseEntity.ok(productService.getAllProducts());
+        });
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : new BufferedOutputStream(out, 8192);
+            productService.exportProducts(target);
+            if (target instanceof GZIPOutputStream) {
+                ((GZIPOutputStream) target).finish();
+            }
+            target.flush();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @GetMapping("/changes")
+    public DeferredResult<ResponseEntity<?>> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return asyncQueryExecutor.submit(() -> {
+            if (productChangeLog.isExpired(since)) {
+                // The consumer has to re-read the catalog; starting from head afterwards misses nothing
+                return ResponseEntity.status(HttpStatus.GONE).body(Map.of(
+                        "message", "Changes after " + since + " are no longer retained",
+                        "head", productChangeLog.head()));
+            }
+            return ResponseEntity.ok(productChangeLog.page(since, limit));
+        });
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Set<String> categories,
+            @RequestParam(required = false) Set<Long> ids) {
+        return productChangeBroadcaster.subscribe(categories, ids);
+    }
+
+    @GetMapping("/aggregates")
+    public ResponseEntity<?> getAggregates(
+            @RequestParam(defaultValue = "category") String by,
+            @RequestParam(required = false) String key) {
+        ProductAggregates.Dimension dimension;
+        try {
+            dimension = ProductAggregates.Dimension.valueOf(by.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unknown aggregate dimension: " + by);
+        }
+        if (key == null) {
+            return ResponseEntity.ok(productAggregates.aggregates(dimension));
+        }
+        ProductAggregate aggregate = productAggregates.aggregate(dimension, key);
+        if (aggregate == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No products with " + by + " '" + key + "'");
+        }
+        return ResponseEntity.ok(aggregate);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getProductById(@PathVariable Long id) {
         return productService.getProductById(id)
-                .map(product -> ResponseEntity.ok((Object) product))
+                .map(product -> ResponseEntity.ok()
+                        .eTag(ProductCatalogVersion.etag(product.getVersion()))
+                        .body((Object) product))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Product with ID " + id + " not found"));
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        List<Product> products = productService.getProductsByCategory(category);
-        if (products.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
+    public DeferredResult<ResponseEntity<?>> getProductsByCategory(@PathVariable String category, WebRequest request) {
+        if (request.checkNotModified(productCatalogVersion.etag())) {
+            return null;
         }
-        return ResponseEntity.ok(products);
+        return asyncQueryExecutor.submit(() -> {
+            List<Product> products = productService.getProductsByCategory(category);
+            if (products.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
+            }
+            return ResponseEntity.ok(products);
+        });
     }
 
     @GetMapping("/brand/{brand}")
-    public ResponseEntity<List<Product>> getProductsByBrand(@PathVariable String brand) {
-        List<Product> products = productService.getProductsByBrand(brand);
-        if (products.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
+    public DeferredResult<ResponseEntity<?>> getProductsByBrand(@PathVariable String brand, WebRequest request) {
+        if (request.checkNotModified(productCatalogVersion.etag())) {
+            return null;
         }
-        return ResponseEntity.ok(products);
+        return asyncQueryExecutor.submit(() -> {
+            List<Product> products = productService.getProductsByBrand(brand);
+            if (products.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
+            }
+            return ResponseEntity.ok(products);
+        });
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String keyword) {
-        List<Product> products = productService.searchProducts(keyword);
-        if (products.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
-        }
-        return ResponseEntity.ok(products);
+    public DeferredResult<ResponseEntity<?>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Integer limit) {
+        return asyncQueryExecutor.submit(() -> {
+            List<Product> products = productService.searchProducts(keyword, limit);
+            if (products.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
+            }
+            return ResponseEntity.ok(products);
+        });
     }
 
     @GetMapping("/price-range")
-    public ResponseEntity<List<Product>> getProductsByPriceRange(
+    public DeferredResult<ResponseEntity<?>> getProductsByPriceRange(
             @RequestParam Double min,
             @RequestParam Double max) {
-        List<Product> products = productService.getProductsByPriceRange(min, max);
-        if (products.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
-        }
-        return ResponseEntity.ok(products);
+        return asyncQueryExecutor.submit(() -> {
+            List<Product> products = productService.getProductsByPriceRange(min, max);
+            if (products.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
+            }
+            return ResponseEntity.ok(products);
+        });
+    }
+
+    @GetMapping("/exists")
+    public ResponseEntity<Map<String, Boolean>> namesExist(@RequestParam List<String> name) {
+        return ResponseEntity.ok(productService.namesExist(name));
+    }
+
+    @GetMapping("/cheapest")
+    public DeferredResult<ResponseEntity<?>> getCheapestProducts(@RequestParam(defaultValue = "10") int limit) {
+        return asyncQueryExecutor.submit(() -> ResponseEntity.ok(productService.getCheapestProducts(limit)));
     }
 
     @GetMapping("/filter")
-    public ResponseEntity<List<Product>> filterByPriceAndBrand(
+    public DeferredResult<ResponseEntity<?>> filterByPriceAndBrand(
             @RequestParam Double price,
             @RequestParam String brand) {
-        List<Product> products = productService.filterByPriceAndBrand(price, brand);
-        if (products.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
-        }
-        return ResponseEntity.ok(products);
+        return asyncQueryExecutor.submit(() -> {
+            List<Product> products = productService.filterByPriceAndBrand(price, brand);
+            if (products.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
+            }
+            return ResponseEntity.ok(products);
+        });
+    }
+
+    @GetMapping("/query")
+    public DeferredResult<ResponseEntity<?>> queryProducts(ProductQuery query) {
+        return asyncQueryExecutor.submit(() -> ResponseEntity.ok(productQueryService.query(query)));
     }
 
     @GetMapping("/in-stock")
-    public ResponseEntity<List<Product>> getInStockProducts() {
-        List<Product> products = productService.getInStockProducts();
-        if (products.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
-        }
-        return ResponseEntity.ok(products);
+    public DeferredResult<ResponseEntity<?>> getInStockProducts() {
+        return asyncQueryExecutor.submit(() -> {
+            List<Product> products = productService.getInStockProducts();
+            if (products.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(products);
+            }
+            return ResponseEntity.ok(products);
+        });
     }
 
     @PostMapping
     public ResponseEntity<?> addProduct(@RequestBody Product product) {
-        if (productService.existsByName(product.getName())) {
+        return productService.addProduct(product)
+                .map(savedProduct -> ResponseEntity.status(HttpStatus.CREATED).body((Object) savedProduct))
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("Product with name '" + product.getName() + "' already exists"));
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importProducts(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(body));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Product product) {
+        try {
+            return productService.updateProduct(id, product)
+                    .map(updatedProduct -> ResponseEntity.ok((Object) updatedProduct))
+                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body("Product with ID " + id + " not found"));
+        } catch (DataIntegrityViolationException e) {
+            // name is the only unique column, and a rename can race a concurrent insert of the same name
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body("Product with name '" + product.getName() + "' already exists");
         }
-        Product savedProduct = productService.addProduct(product);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
     }
 
-    @PutMapping("/{id}")
-    public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Product product) {
-        return productService.updateProduct(id, product)
-                .map(updatedProduct -> ResponseEntity.ok((Object) updatedProduct))
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Product with ID " + id + " not found"));
+    @PatchMapping
+    public ResponseEntity<?> patchProducts(@RequestBody List<ProductPatch> patches) {
+        try {
+            return ResponseEntity.ok(productPatchService.patch(patches));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
     }
 
     @PatchMapping("/{id}/stock")
@@ -120,6 +313,50 @@ public class ProductController {
                         .body("Product with ID " + id + " not found"));
     }
 
+    @PostMapping("/{id}/stock/decrement")
+    public ResponseEntity<?> decrementStock(@PathVariable Long id, @RequestParam int quantity) {
+        try {
+            return stockResponse(productStockService.decrement(id, quantity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/stock/increment")
+    public ResponseEntity<?> incrementStock(@PathVariable Long id, @RequestParam int quantity) {
+        try {
+            return stockResponse(productStockService.increment(id, quantity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/stock/reserve")
+    public ResponseEntity<?> reserveStock(@RequestBody List<StockRequest> items) {
+        try {
+            List<StockUpdateResult> results = productStockService.reserve(items);
+            if (results.size() == 1 && results.get(0).getStatus() != StockUpdateResult.Status.OK) {
+                return stockResponse(results.get(0));
+            }
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> stockResponse(StockUpdateResult result) {
+        switch (result.getStatus()) {
+            case NOT_FOUND:
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Product with ID " + result.getProductId() + " not found");
+            case INSUFFICIENT_STOCK:
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("Insufficient stock for product with ID " + result.getProductId());
+            default:
+                return ResponseEntity.ok(result);
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteProduct(@PathVariable Long id) {
         if (productService.deleteProduct(id)) {
@@ -4,44 +4,70 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.restapi.model.library.Book;
+import com.restapi.repository.memory.HashIndex;
+import com.restapi.repository.memory.InMemoryRepository;
+import com.restapi.repository.memory.SortedIndex;
+import com.restapi.repository.memory.WordIndex;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
-    private List<Book> books = new ArrayList<>();
-    private Long nextId = 4L;
+    private static final int MAX_SUGGESTIONS = 100;
+
+    private final InMemoryRepository<Book> books = new InMemoryRepository<>(Book::getId, Book::setId);
+    private final HashIndex<Book, String> byIsbn = books.addHashIndex(book -> normalizeIsbn(book.getIsbn()));
+    private final SortedIndex<Book, String> byTitle = books.addSortedIndex(book -> fold(book.getTitle()));
+    private final WordIndex<Book> byTitleWords = books.addIndex(new WordIndex<>(Book::getTitle));
 
     public BookController() {
-        books.add(new Book(1L, "Clean Code", "Robert Martin", "978-0132350884", 2008));
-        books.add(new Book(2L, "The Pragmatic Programmer", "David Thomas", "978-0201616224", 1999));
-        books.add(new Book(3L, "Design Patterns", "Gang of Four", "978-0201633610", 1994));
+        books.save(new Book(1L, "Clean Code", "Robert Martin", "978-0132350884", 2008));
+        books.save(new Book(2L, "The Pragmatic Programmer", "David Thomas", "978-0201616224", 1999));
+        books.save(new Book(3L, "Design Patterns", "Gang of Four", "978-0201633610", 1994));
     }
 
     @GetMapping
     public ResponseEntity<List<Book>> getAllBooks() {
-        return ResponseEntity.ok(books);
+        return ResponseEntity.ok(books.findAll());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getBookById(@PathVariable Long id) {
-        return books.stream()
-                .filter(book -> book.getId().equals(id))
-                .findFirst()
+        return books.findById(id)
                 .map(book -> ResponseEntity.ok((Object) book))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Book with ID " + id + " not found"));
     }
 
+    @GetMapping("/isbn/{isbn}")
+    public ResponseEntity<?> getBookByIsbn(@PathVariable String isbn) {
+        return books.findBy(byIsbn, normalizeIsbn(isbn)).stream().findFirst()
+                .map(book -> ResponseEntity.ok((Object) book))
+                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Book with ISBN " + isbn + " not found"));
+    }
+
+    // Matches titles with a word starting with each word of the query, so "prag prog" finds The Pragmatic Programmer
     @GetMapping("/search")
     public ResponseEntity<List<Book>> searchByTitle(@RequestParam String title) {
-        List<Book> results = books.stream()
-                .filter(book -> book.getTitle().toLowerCase().contains(title.toLowerCase()))
-                .collect(Collectors.toList());
+        List<Book> results = title.isBlank() ? books.findAll() : books.findByWordPrefixes(byTitleWords, title);
+
+        if (results.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    // The first titles in alphabetical order that start with the prefix
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<Book>> autocompleteTitle(@RequestParam String prefix,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        String from = fold(prefix);
+        List<Book> results = books.findFirst(byTitle, from, from + Character.MAX_VALUE,
+                Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
 
         if (results.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
@@ -51,18 +77,37 @@ public class BookController {
 
     @PostMapping
     public ResponseEntity<Book> addBook(@RequestBody Book book) {
-        book.setId(nextId++);
-        books.add(book);
+        book.setId(null);
+        books.save(book);
         return ResponseEntity.status(HttpStatus.CREATED).body(book);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteBook(@PathVariable Long id) {
-        boolean removed = books.removeIf(book -> book.getId().equals(id));
+        boolean removed = books.deleteById(id);
         if (removed) {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body("Book with ID " + id + " not found");
     }
+
+    private static String fold(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    // "978-0132350884", "978 0132350884" and "9780132350884" are the same ISBN
+    private static String normalizeIsbn(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c != '-' && !Character.isWhitespace(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
 }
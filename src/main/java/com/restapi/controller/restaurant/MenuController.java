@@ -5,48 +5,46 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.restapi.model.restaurant.MenuItem;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/menu")
 public class MenuController {
 
-    private List<MenuItem> menuItems = new ArrayList<>();
-    private Long nextId = 9L;
+    // Reads only load the current snapshot; writes are serialized and never touch an item that has been published
+    private volatile MenuSnapshot menu = MenuSnapshot.EMPTY;
+    private long nextId = 1;
 
     public MenuController() {
-        menuItems.add(new MenuItem(1L, "Spring Rolls", "Crispy spring rolls with vegetables", 5.99, "Appetizer", true));
-        menuItems.add(new MenuItem(2L, "Bruschetta", "Toasted bread with tomato and basil", 4.99, "Appetizer", true));
-        menuItems.add(new MenuItem(3L, "Grilled Salmon", "Fresh salmon fillet with lemon butter sauce", 18.99, "Main Course", true));
-        menuItems.add(new MenuItem(4L, "Pasta Carbonara", "Creamy pasta with bacon and parmesan", 14.99, "Main Course", true));
-        menuItems.add(new MenuItem(5L, "Chocolate Lava Cake", "Warm chocolate cake with molten center", 7.99, "Dessert", true));
-        menuItems.add(new MenuItem(6L, "Cheesecake", "New York style cheesecake", 6.99, "Dessert", false));
-        menuItems.add(new MenuItem(7L, "Iced Coffee", "Cold brew coffee with ice", 3.99, "Beverage", true));
-        menuItems.add(new MenuItem(8L, "Fresh Orange Juice", "Freshly squeezed orange juice", 4.99, "Beverage", true));
+        save(new MenuItem(1L, "Spring Rolls", "Crispy spring rolls with vegetables", 5.99, "Appetizer", true));
+        save(new MenuItem(2L, "Bruschetta", "Toasted bread with tomato and basil", 4.99, "Appetizer", true));
+        save(new MenuItem(3L, "Grilled Salmon", "Fresh salmon fillet with lemon butter sauce", 18.99, "Main Course", true));
+        save(new MenuItem(4L, "Pasta Carbonara", "Creamy pasta with bacon and parmesan", 14.99, "Main Course", true));
+        save(new MenuItem(5L, "Chocolate Lava Cake", "Warm chocolate cake with molten center", 7.99, "Dessert", true));
+        save(new MenuItem(6L, "Cheesecake", "New York style cheesecake", 6.99, "Dessert", false));
+        save(new MenuItem(7L, "Iced Coffee", "Cold brew coffee with ice", 3.99, "Beverage", true));
+        save(new MenuItem(8L, "Fresh Orange Juice", "Freshly squeezed orange juice", 4.99, "Beverage", true));
     }
 
     @GetMapping
     public ResponseEntity<List<MenuItem>> getAllMenuItems() {
-        return ResponseEntity.ok(menuItems);
+        return ResponseEntity.ok(menu.items());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getMenuItemById(@PathVariable Long id) {
-        return menuItems.stream()
-                .filter(item -> item.getId().equals(id))
-                .findFirst()
-                .map(item -> ResponseEntity.ok((Object) item))
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Menu item with ID " + id + " not found"));
+        MenuItem item = menu.find(id);
+        if (item == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Menu item with ID " + id + " not found");
+        }
+        return ResponseEntity.ok(item);
     }
 
     @GetMapping("/category/{category}")
     public ResponseEntity<List<MenuItem>> getItemsByCategory(@PathVariable String category) {
-        List<MenuItem> results = menuItems.stream()
-                .filter(item -> item.getCategory().equalsIgnoreCase(category))
-                .collect(Collectors.toList());
+        List<MenuItem> results = menu.inCategory(category);
 
         if (results.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
@@ -56,9 +54,7 @@ public class MenuController {
 
     @GetMapping("/available")
     public ResponseEntity<List<MenuItem>> getAvailableItems(@RequestParam(defaultValue = "true") boolean available) {
-        List<MenuItem> results = menuItems.stream()
-                .filter(item -> item.isAvailable() == available)
-                .collect(Collectors.toList());
+        List<MenuItem> results = menu.withAvailability(available);
 
         if (results.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
@@ -68,9 +64,10 @@ public class MenuController {
 
     @GetMapping("/search")
     public ResponseEntity<List<MenuItem>> searchByName(@RequestParam String name) {
-        List<MenuItem> results = menuItems.stream()
-                .filter(item -> item.getName().toLowerCase().contains(name.toLowerCase()))
-                .collect(Collectors.toList());
+        String folded = name.toLowerCase(Locale.ROOT);
+        List<MenuItem> results = menu.items().stream()
+                .filter(item -> item.getName() != null && item.getName().toLowerCase(Locale.ROOT).contains(folded))
+                .toList();
 
         if (results.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
@@ -80,31 +77,50 @@ public class MenuController {
 
     @PostMapping
     public ResponseEntity<MenuItem> addMenuItem(@RequestBody MenuItem menuItem) {
-        menuItem.setId(nextId++);
-        menuItems.add(menuItem);
+        menuItem.setId(null);
+        save(menuItem);
         return ResponseEntity.status(HttpStatus.CREATED).body(menuItem);
     }
 
     @PutMapping("/{id}/availability")
     public ResponseEntity<?> toggleAvailability(@PathVariable Long id) {
-        return menuItems.stream()
-                .filter(item -> item.getId().equals(id))
-                .findFirst()
-                .map(item -> {
-                    item.setAvailable(!item.isAvailable());
-                    return ResponseEntity.ok((Object) item);
-                })
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Menu item with ID " + id + " not found"));
+        MenuItem toggled;
+        synchronized (this) {
+            MenuItem current = menu.find(id);
+            if (current == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Menu item with ID " + id + " not found");
+            }
+            // A copy, as readers may be serializing the published item right now
+            toggled = new MenuItem(current.getId(), current.getName(), current.getDescription(), current.getPrice(),
+                    current.getCategory(), !current.isAvailable());
+            menu = menu.with(toggled);
+        }
+        return ResponseEntity.ok(toggled);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteMenuItem(@PathVariable Long id) {
-        boolean removed = menuItems.removeIf(item -> item.getId().equals(id));
+        boolean removed;
+        synchronized (this) {
+            MenuSnapshot current = menu;
+            menu = current.without(id);
+            removed = menu != current;
+        }
         if (removed) {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body("Menu item with ID " + id + " not found");
     }
+
+    // Items without an id get the next one; seed items keep theirs
+    private synchronized void save(MenuItem item) {
+        if (item.getId() == null) {
+            item.setId(nextId++);
+        } else {
+            nextId = Math.max(nextId, item.getId() + 1);
+        }
+        menu = menu.with(item);
+    }
 }
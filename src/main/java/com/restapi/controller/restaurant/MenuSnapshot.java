@@ -0,0 +1,170 @@
+package com.restapi.controller.restaurant;
+
+import com.restapi.model.restaurant.MenuItem;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+// One immutable version of the menu. Writers build the next version and publish it in a single volatile write, so a
+// reader always sees one consistent menu, and the items in it are never modified after publication
+final class MenuSnapshot {
+
+    static final MenuSnapshot EMPTY = new MenuSnapshot(new MenuItem[0]);
+
+    private static final Comparator<MenuItem> BY_ID = Comparator.comparing(MenuItem::getId);
+
+    private final MenuItem[] items;
+    private final List<MenuItem> all;
+    // Positions into items, which only change when an item is added, removed or moved to another category
+    private final Map<String, int[]> categories;
+    private final BitSet available;
+
+    // Filled in by the first reader that asks; racing readers build equal lists, and either one may win
+    private List<MenuItem> availableItems;
+    private List<MenuItem> unavailableItems;
+
+    private MenuSnapshot(MenuItem[] items) {
+        this(items, groupByCategory(items), availability(items));
+    }
+
+    private MenuSnapshot(MenuItem[] items, Map<String, int[]> categories, BitSet available) {
+        this.items = items;
+        this.all = Collections.unmodifiableList(Arrays.asList(items));
+        this.categories = categories;
+        this.available = available;
+    }
+
+    static String fold(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    List<MenuItem> items() {
+        return all;
+    }
+
+    MenuItem find(Long id) {
+        int at = id == null ? -1 : positionOf(id);
+        return at < 0 ? null : items[at];
+    }
+
+    List<MenuItem> inCategory(String category) {
+        int[] positions = categories.get(fold(category));
+        return positions == null ? List.of() : new Positions(items, positions);
+    }
+
+    List<MenuItem> withAvailability(boolean isAvailable) {
+        List<MenuItem> result = isAvailable ? availableItems : unavailableItems;
+        if (result == null) {
+            List<MenuItem> matching = new ArrayList<>();
+            for (int i = isAvailable ? available.nextSetBit(0) : available.nextClearBit(0); i >= 0 && i < items.length;
+                 i = isAvailable ? available.nextSetBit(i + 1) : available.nextClearBit(i + 1)) {
+                matching.add(items[i]);
+            }
+            result = List.copyOf(matching);
+            if (isAvailable) {
+                availableItems = result;
+            } else {
+                unavailableItems = result;
+            }
+        }
+        return result;
+    }
+
+    // Adds the item, or replaces the one with the same id. Replacing an item within its category, as an availability
+    // toggle does, copies the item array and the bitset and shares the category positions with this snapshot
+    MenuSnapshot with(MenuItem item) {
+        int at = positionOf(item.getId());
+        if (at >= 0 && sameCategory(items[at], item)) {
+            MenuItem[] next = items.clone();
+            next[at] = item;
+            BitSet nextAvailable = (BitSet) available.clone();
+            nextAvailable.set(at, item.isAvailable());
+            return new MenuSnapshot(next, categories, nextAvailable);
+        }
+        MenuItem[] next;
+        if (at >= 0) {
+            next = items.clone();
+            next[at] = item;
+        } else {
+            int insert = -at - 1;
+            next = new MenuItem[items.length + 1];
+            System.arraycopy(items, 0, next, 0, insert);
+            next[insert] = item;
+            System.arraycopy(items, insert, next, insert + 1, items.length - insert);
+        }
+        return new MenuSnapshot(next);
+    }
+
+    MenuSnapshot without(Long id) {
+        int at = positionOf(id);
+        if (at < 0) {
+            return this;
+        }
+        MenuItem[] next = new MenuItem[items.length - 1];
+        System.arraycopy(items, 0, next, 0, at);
+        System.arraycopy(items, at + 1, next, at, items.length - at - 1);
+        return new MenuSnapshot(next);
+    }
+
+    private int positionOf(Long id) {
+        MenuItem probe = new MenuItem();
+        probe.setId(id);
+        return Arrays.binarySearch(items, probe, BY_ID);
+    }
+
+    private static boolean sameCategory(MenuItem left, MenuItem right) {
+        return Objects.equals(left.getCategory() == null ? null : fold(left.getCategory()),
+                right.getCategory() == null ? null : fold(right.getCategory()));
+    }
+
+    private static Map<String, int[]> groupByCategory(MenuItem[] items) {
+        Map<String, List<Integer>> grouped = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            if (items[i].getCategory() != null) {
+                grouped.computeIfAbsent(fold(items[i].getCategory()), key -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> result = new HashMap<>();
+        grouped.forEach((key, positions) -> result.put(key, positions.stream().mapToInt(Integer::intValue).toArray()));
+        return Map.copyOf(result);
+    }
+
+    private static BitSet availability(MenuItem[] items) {
+        BitSet result = new BitSet(items.length);
+        for (int i = 0; i < items.length; i++) {
+            result.set(i, items[i].isAvailable());
+        }
+        return result;
+    }
+
+    // A read-only view of some of a snapshot's items, so a category read allocates nothing but the view itself
+    private static final class Positions extends AbstractList<MenuItem> implements RandomAccess {
+        private final MenuItem[] items;
+        private final int[] positions;
+
+        Positions(MenuItem[] items, int[] positions) {
+            this.items = items;
+            this.positions = positions;
+        }
+
+        @Override
+        public MenuItem get(int index) {
+            return items[positions[index]];
+        }
+
+        @Override
+        public int size() {
+            return positions.length;
+        }
+    }
+}
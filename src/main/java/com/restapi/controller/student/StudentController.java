@@ -4,36 +4,36 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.restapi.model.student.Student;
+import com.restapi.repository.memory.HashIndex;
+import com.restapi.repository.memory.InMemoryRepository;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/students")
 public class StudentController {
 
-    private List<Student> students = new ArrayList<>();
-    private Long nextId = 6L;
+    private final InMemoryRepository<Student> students =
+            new InMemoryRepository<>(Student::getStudentId, Student::setStudentId);
+    private final HashIndex<Student, String> byMajor = students.addHashIndex(student -> majorKey(student.getMajor()));
 
     public StudentController() {
-        students.add(new Student(1L, "John", "Doe", "john@example.com", "Computer Science", 3.8));
-        students.add(new Student(2L, "Jane", "Smith", "jane@example.com", "Computer Science", 3.9));
-        students.add(new Student(3L, "Bob", "Johnson", "bob@example.com", "Mathematics", 3.5));
-        students.add(new Student(4L, "Alice", "Brown", "alice@example.com", "Physics", 3.6));
-        students.add(new Student(5L, "Charlie", "Davis", "charlie@example.com", "Computer Science", 3.4));
+        students.save(new Student(1L, "John", "Doe", "john@example.com", "Computer Science", 3.8));
+        students.save(new Student(2L, "Jane", "Smith", "jane@example.com", "Computer Science", 3.9));
+        students.save(new Student(3L, "Bob", "Johnson", "bob@example.com", "Mathematics", 3.5));
+        students.save(new Student(4L, "Alice", "Brown", "alice@example.com", "Physics", 3.6));
+        students.save(new Student(5L, "Charlie", "Davis", "charlie@example.com", "Computer Science", 3.4));
     }
 
     @GetMapping
     public ResponseEntity<List<Student>> getAllStudents() {
-        return ResponseEntity.ok(students);
+        return ResponseEntity.ok(students.findAll());
     }
 
     @GetMapping("/{studentId}")
     public ResponseEntity<?> getStudentById(@PathVariable Long studentId) {
-        return students.stream()
-                .filter(student -> student.getStudentId().equals(studentId))
-                .findFirst()
+        return students.findById(studentId)
                 .map(student -> ResponseEntity.ok((Object) student))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Student with ID " + studentId + " not found"));
@@ -41,9 +41,7 @@ public class StudentController {
 
     @GetMapping("/major/{major}")
     public ResponseEntity<List<Student>> getStudentsByMajor(@PathVariable String major) {
-        List<Student> results = students.stream()
-                .filter(student -> student.getMajor().equalsIgnoreCase(major))
-                .collect(Collectors.toList());
+        List<Student> results = students.findBy(byMajor, majorKey(major));
 
         if (results.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
@@ -53,9 +51,7 @@ public class StudentController {
 
     @GetMapping("/filter")
     public ResponseEntity<List<Student>> filterStudentsByGpa(@RequestParam Double gpa) {
-        List<Student> results = students.stream()
-                .filter(student -> student.getGpa() >= gpa)
-                .collect(Collectors.toList());
+        List<Student> results = students.findAll(student -> student.getGpa() >= gpa);
 
         if (results.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
@@ -65,25 +61,26 @@ public class StudentController {
 
     @PostMapping
     public ResponseEntity<Student> registerStudent(@RequestBody Student student) {
-        student.setStudentId(nextId++);
-        students.add(student);
+        student.setStudentId(null);
+        students.save(student);
         return ResponseEntity.status(HttpStatus.CREATED).body(student);
     }
 
     @PutMapping("/{studentId}")
     public ResponseEntity<?> updateStudent(@PathVariable Long studentId, @RequestBody Student updatedStudent) {
-        return students.stream()
-                .filter(student -> student.getStudentId().equals(studentId))
-                .findFirst()
-                .map(student -> {
+        return students.update(studentId, student -> {
                     student.setFirstName(updatedStudent.getFirstName());
                     student.setLastName(updatedStudent.getLastName());
                     student.setEmail(updatedStudent.getEmail());
                     student.setMajor(updatedStudent.getMajor());
                     student.setGpa(updatedStudent.getGpa());
-                    return ResponseEntity.ok((Object) student);
                 })
+                .map(student -> ResponseEntity.ok((Object) student))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Student with ID " + studentId + " not found"));
     }
+
+    private static String majorKey(String major) {
+        return major == null ? null : major.toLowerCase(Locale.ROOT);
+    }
 }
@@ -4,35 +4,46 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.restapi.model.task.Task;
+import com.restapi.repository.memory.HashIndex;
+import com.restapi.repository.memory.InMemoryRepository;
+import com.restapi.repository.memory.SortedIndex;
 
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/tasks")
 public class TaskController {
 
-    private List<Task> tasks = new ArrayList<>();
-    private Long nextId = 6L;
+    private static final int MAX_LIMIT = 1000;
+
+    private final InMemoryRepository<Task> tasks = new InMemoryRepository<>(Task::getTaskId, Task::setTaskId);
+    private final HashIndex<Task, Boolean> byCompleted = tasks.addHashIndex(Task::isCompleted);
+    private final HashIndex<Task, String> byPriority = tasks.addHashIndex(task -> fold(task.getPriority()));
+    // Completed tasks drop out of the two ordered indexes, so they only ever hold open work
+    private final SortedIndex<Task, LocalDate> openByDueDate =
+            tasks.addSortedIndex(task -> task.isCompleted() ? null : parseDueDate(task.getDueDate()));
+    private final SortedIndex<Task, Urgency> openByUrgency =
+            tasks.addSortedIndex(task -> task.isCompleted() ? null : Urgency.of(task));
 
     public TaskController() {
-        tasks.add(new Task(1L, "Complete Project", "Finish the Spring Boot project", false, "HIGH", "2026-02-15"));
-        tasks.add(new Task(2L, "Review Code", "Review team's code changes", false, "MEDIUM", "2026-02-12"));
-        tasks.add(new Task(3L, "Update Documentation", "Update API documentation", true, "LOW", "2026-02-10"));
-        tasks.add(new Task(4L, "Fix Bugs", "Fix reported bugs in the application", false, "HIGH", "2026-02-14"));
-        tasks.add(new Task(5L, "Team Meeting", "Attend weekly team meeting", false, "MEDIUM", "2026-02-11"));
+        tasks.save(new Task(1L, "Complete Project", "Finish the Spring Boot project", false, "HIGH", "2026-02-15"));
+        tasks.save(new Task(2L, "Review Code", "Review team's code changes", false, "MEDIUM", "2026-02-12"));
+        tasks.save(new Task(3L, "Update Documentation", "Update API documentation", true, "LOW", "2026-02-10"));
+        tasks.save(new Task(4L, "Fix Bugs", "Fix reported bugs in the application", false, "HIGH", "2026-02-14"));
+        tasks.save(new Task(5L, "Team Meeting", "Attend weekly team meeting", false, "MEDIUM", "2026-02-11"));
     }
 
     @GetMapping
     public ResponseEntity<List<Task>> getAllTasks() {
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(tasks.findAll());
     }
     @GetMapping("/{taskId}")
     public ResponseEntity<?> getTaskById(@PathVariable Long taskId) {
-        return tasks.stream()
-                .filter(task -> task.getTaskId().equals(taskId))
-                .findFirst()
+        return tasks.findById(taskId)
                 .map(task -> ResponseEntity.ok((Object) task))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Task with ID " + taskId + " not found"));
@@ -40,9 +51,7 @@ public class TaskController {
 
     @GetMapping("/status")
     public ResponseEntity<List<Task>> getTasksByStatus(@RequestParam boolean completed) {
-        List<Task> results = tasks.stream()
-                .filter(task -> task.isCompleted() == completed)
-                .collect(Collectors.toList());
+        List<Task> results = tasks.findBy(byCompleted, completed);
 
         if (results.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
@@ -52,9 +61,37 @@ public class TaskController {
 
     @GetMapping("/priority/{priority}")
     public ResponseEntity<List<Task>> getTasksByPriority(@PathVariable String priority) {
-        List<Task> results = tasks.stream()
-                .filter(task -> task.getPriority().equalsIgnoreCase(priority))
-                .collect(Collectors.toList());
+        List<Task> results = tasks.findBy(byPriority, fold(priority));
+
+        if (results.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    @GetMapping("/upcoming")
+    public ResponseEntity<List<Task>> getUpcomingTasks(@RequestParam(defaultValue = "10") int limit) {
+        List<Task> results = tasks.findFirst(openByDueDate, LocalDate.now(), null, clamp(limit));
+
+        if (results.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    @GetMapping("/overdue")
+    public ResponseEntity<List<Task>> getOverdueTasks(@RequestParam(defaultValue = "10") int limit) {
+        List<Task> results = tasks.findFirst(openByDueDate, null, LocalDate.now().minusDays(1), clamp(limit));
+
+        if (results.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    @GetMapping("/top-priority")
+    public ResponseEntity<List<Task>> getTopPriorityTasks(@RequestParam(defaultValue = "10") int limit) {
+        List<Task> results = tasks.findFirst(openByUrgency, null, null, clamp(limit));
 
         if (results.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(results);
@@ -64,48 +101,78 @@ public class TaskController {
 
     @PostMapping
     public ResponseEntity<Task> createTask(@RequestBody Task task) {
-        task.setTaskId(nextId++);
-        tasks.add(task);
+        task.setTaskId(null);
+        tasks.save(task);
         return ResponseEntity.status(HttpStatus.CREATED).body(task);
     }
 
     @PutMapping("/{taskId}")
     public ResponseEntity<?> updateTask(@PathVariable Long taskId, @RequestBody Task updatedTask) {
-        return tasks.stream()
-                .filter(task -> task.getTaskId().equals(taskId))
-                .findFirst()
-                .map(task -> {
+        return tasks.update(taskId, task -> {
                     task.setTitle(updatedTask.getTitle());
                     task.setDescription(updatedTask.getDescription());
                     task.setCompleted(updatedTask.isCompleted());
                     task.setPriority(updatedTask.getPriority());
                     task.setDueDate(updatedTask.getDueDate());
-                    return ResponseEntity.ok((Object) task);
                 })
+                .map(task -> ResponseEntity.ok((Object) task))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Task with ID " + taskId + " not found"));
     }
 
     @PatchMapping("/{taskId}/complete")
     public ResponseEntity<?> markTaskAsCompleted(@PathVariable Long taskId) {
-        return tasks.stream()
-                .filter(task -> task.getTaskId().equals(taskId))
-                .findFirst()
-                .map(task -> {
-                    task.setCompleted(true);
-                    return ResponseEntity.ok((Object) task);
-                })
+        return tasks.update(taskId, task -> task.setCompleted(true))
+                .map(task -> ResponseEntity.ok((Object) task))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Task with ID " + taskId + " not found"));
     }
 
     @DeleteMapping("/{taskId}")
     public ResponseEntity<?> deleteTask(@PathVariable Long taskId) {
-        boolean removed = tasks.removeIf(task -> task.getTaskId().equals(taskId));
+        boolean removed = tasks.deleteById(taskId);
         if (removed) {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body("Task with ID " + taskId + " not found");
     }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private static String fold(String value) {
+        return value == null ? null : value.toUpperCase(Locale.ROOT);
+    }
+
+    // Tasks whose due date is missing or not an ISO date are still listed everywhere else, just never as due
+    private static LocalDate parseDueDate(String dueDate) {
+        if (dueDate == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(dueDate.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // HIGH before MEDIUM before LOW before anything else, then the earliest due date, with undated tasks last
+    private record Urgency(int rank, LocalDate dueDate) implements Comparable<Urgency> {
+
+        private static final Comparator<Urgency> ORDER = Comparator.comparingInt(Urgency::rank)
+                .thenComparing(Urgency::dueDate, Comparator.nullsLast(Comparator.naturalOrder()));
+
+        static Urgency of(Task task) {
+            String priority = fold(task.getPriority());
+            int rank = "HIGH".equals(priority) ? 0 : "MEDIUM".equals(priority) ? 1 : "LOW".equals(priority) ? 2 : 3;
+            return new Urgency(rank, parseDueDate(task.getDueDate()));
+        }
+
+        @Override
+        public int compareTo(Urgency other) {
+            return ORDER.compare(this, other);
+        }
+    }
 }
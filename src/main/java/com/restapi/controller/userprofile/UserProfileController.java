@@ -4,39 +4,42 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.restapi.model.userprofile.UserProfile;
+import com.restapi.repository.memory.HashIndex;
+import com.restapi.repository.memory.InMemoryRepository;
+import com.restapi.repository.memory.SortedIndex;
 import com.restapi.util.ApiResponse;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserProfileController {
 
-    private List<UserProfile> userProfiles = new ArrayList<>();
-    private Long nextId = 6L;
+    private final InMemoryRepository<UserProfile> userProfiles =
+            new InMemoryRepository<>(UserProfile::getUserId, UserProfile::setUserId);
+    private final HashIndex<UserProfile, String> byUsername = userProfiles.addHashIndex(user -> fold(user.getUsername()));
+    private final HashIndex<UserProfile, String> byCountry = userProfiles.addHashIndex(user -> fold(user.getCountry()));
+    private final SortedIndex<UserProfile, Integer> byAge = userProfiles.addSortedIndex(UserProfile::getAge);
 
     public UserProfileController() {
-        userProfiles.add(new UserProfile(1L, "john_doe", "john@example.com", "John Doe", 28, "USA", "Software Developer passionate about coding", true));
-        userProfiles.add(new UserProfile(2L, "jane_smith", "jane@example.com", "Jane Smith", 32, "Canada", "Data Scientist and AI enthusiast", true));
-        userProfiles.add(new UserProfile(3L, "bob_wilson", "bob@example.com", "Bob Wilson", 45, "USA", "Project Manager with 15 years experience", true));
-        userProfiles.add(new UserProfile(4L, "alice_brown", "alice@example.com", "Alice Brown", 26, "UK", "Full-stack developer", false));
-        userProfiles.add(new UserProfile(5L, "charlie_davis", "charlie@example.com", "Charlie Davis", 35, "Australia", "DevOps Engineer", true));
+        userProfiles.save(new UserProfile(1L, "john_doe", "john@example.com", "John Doe", 28, "USA", "Software Developer passionate about coding", true));
+        userProfiles.save(new UserProfile(2L, "jane_smith", "jane@example.com", "Jane Smith", 32, "Canada", "Data Scientist and AI enthusiast", true));
+        userProfiles.save(new UserProfile(3L, "bob_wilson", "bob@example.com", "Bob Wilson", 45, "USA", "Project Manager with 15 years experience", true));
+        userProfiles.save(new UserProfile(4L, "alice_brown", "alice@example.com", "Alice Brown", 26, "UK", "Full-stack developer", false));
+        userProfiles.save(new UserProfile(5L, "charlie_davis", "charlie@example.com", "Charlie Davis", 35, "Australia", "DevOps Engineer", true));
     }
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<UserProfile>>> getAllUsers() {
-        ApiResponse<List<UserProfile>> response = new ApiResponse<>(true, "Users retrieved successfully", userProfiles);
+        ApiResponse<List<UserProfile>> response = new ApiResponse<>(true, "Users retrieved successfully", userProfiles.findAll());
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{userId}")
     public ResponseEntity<?> getUserById(@PathVariable Long userId) {
-        Optional<UserProfile> user = userProfiles.stream()
-                .filter(u -> u.getUserId().equals(userId))
-                .findFirst();
+        Optional<UserProfile> user = userProfiles.findById(userId);
 
         if (user.isPresent()) {
             ApiResponse<UserProfile> response = new ApiResponse<>(true, "User retrieved successfully", user.get());
@@ -48,9 +51,7 @@ public class UserProfileController {
 
     @GetMapping("/search/username")
     public ResponseEntity<?> searchByUsername(@RequestParam String username) {
-        Optional<UserProfile> user = userProfiles.stream()
-                .filter(u -> u.getUsername().equalsIgnoreCase(username))
-                .findFirst();
+        Optional<UserProfile> user = userProfiles.findBy(byUsername, fold(username)).stream().findFirst();
 
         if (user.isPresent()) {
             ApiResponse<UserProfile> response = new ApiResponse<>(true, "User found", user.get());
@@ -62,9 +63,7 @@ public class UserProfileController {
 
     @GetMapping("/country/{country}")
     public ResponseEntity<?> getUsersByCountry(@PathVariable String country) {
-        List<UserProfile> results = userProfiles.stream()
-                .filter(user -> user.getCountry().equalsIgnoreCase(country))
-                .collect(Collectors.toList());
+        List<UserProfile> results = userProfiles.findBy(byCountry, fold(country));
 
         if (results.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -76,9 +75,7 @@ public class UserProfileController {
 
     @GetMapping("/age-range")
     public ResponseEntity<?> getUsersByAgeRange(@RequestParam int minAge, @RequestParam int maxAge) {
-        List<UserProfile> results = userProfiles.stream()
-                .filter(user -> user.getAge() >= minAge && user.getAge() <= maxAge)
-                .collect(Collectors.toList());
+        List<UserProfile> results = userProfiles.findBetween(byAge, minAge, maxAge);
 
         if (results.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -90,28 +87,26 @@ public class UserProfileController {
 
     @PostMapping
     public ResponseEntity<ApiResponse<UserProfile>> createUser(@RequestBody UserProfile userProfile) {
-        userProfile.setUserId(nextId++);
+        userProfile.setUserId(null);
         userProfile.setActive(true);
-        userProfiles.add(userProfile);
+        userProfiles.save(userProfile);
         ApiResponse<UserProfile> response = new ApiResponse<>(true, "User profile created successfully", userProfile);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @PutMapping("/{userId}")
     public ResponseEntity<?> updateUser(@PathVariable Long userId, @RequestBody UserProfile updatedUser) {
-        Optional<UserProfile> existingUser = userProfiles.stream()
-                .filter(user -> user.getUserId().equals(userId))
-                .findFirst();
-
-        if (existingUser.isPresent()) {
-            UserProfile user = existingUser.get();
+        Optional<UserProfile> existingUser = userProfiles.update(userId, user -> {
             user.setUsername(updatedUser.getUsername());
             user.setEmail(updatedUser.getEmail());
             user.setFullName(updatedUser.getFullName());
             user.setAge(updatedUser.getAge());
             user.setCountry(updatedUser.getCountry());
             user.setBio(updatedUser.getBio());
-            ApiResponse<UserProfile> response = new ApiResponse<>(true, "User profile updated successfully", user);
+        });
+
+        if (existingUser.isPresent()) {
+            ApiResponse<UserProfile> response = new ApiResponse<>(true, "User profile updated successfully", existingUser.get());
             return ResponseEntity.ok(response);
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -120,14 +115,10 @@ public class UserProfileController {
 
     @PatchMapping("/{userId}/activate")
     public ResponseEntity<?> activateUser(@PathVariable Long userId) {
-        Optional<UserProfile> existingUser = userProfiles.stream()
-                .filter(user -> user.getUserId().equals(userId))
-                .findFirst();
+        Optional<UserProfile> existingUser = userProfiles.update(userId, user -> user.setActive(true));
 
         if (existingUser.isPresent()) {
-            UserProfile user = existingUser.get();
-            user.setActive(true);
-            ApiResponse<UserProfile> response = new ApiResponse<>(true, "User profile activated successfully", user);
+            ApiResponse<UserProfile> response = new ApiResponse<>(true, "User profile activated successfully", existingUser.get());
             return ResponseEntity.ok(response);
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -136,14 +127,10 @@ public class UserProfileController {
 
     @PatchMapping("/{userId}/deactivate")
     public ResponseEntity<?> deactivateUser(@PathVariable Long userId) {
-        Optional<UserProfile> existingUser = userProfiles.stream()
-                .filter(user -> user.getUserId().equals(userId))
-                .findFirst();
+        Optional<UserProfile> existingUser = userProfiles.update(userId, user -> user.setActive(false));
 
         if (existingUser.isPresent()) {
-            UserProfile user = existingUser.get();
-            user.setActive(false);
-            ApiResponse<UserProfile> response = new ApiResponse<>(true, "User profile deactivated successfully", user);
+            ApiResponse<UserProfile> response = new ApiResponse<>(true, "User profile deactivated successfully", existingUser.get());
             return ResponseEntity.ok(response);
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -152,11 +139,15 @@ public class UserProfileController {
 
     @DeleteMapping("/{userId}")
     public ResponseEntity<?> deleteUser(@PathVariable Long userId) {
-        boolean removed = userProfiles.removeIf(user -> user.getUserId().equals(userId));
+        boolean removed = userProfiles.deleteById(userId);
         if (removed) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(new ApiResponse<>(false, "User with ID " + userId + " not found", null));
     }
+
+    private static String fold(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
 }
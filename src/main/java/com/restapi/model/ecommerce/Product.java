@@ -6,9 +6,14 @@ import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_price_id", columnList = "price, product_id")
+})
 public class Product {
 
     @Id
@@ -34,6 +39,11 @@ public class Product {
     @Column(name = "brand")
     private String brand;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public Product() {}
 
     public Product(Long productId, String name, String description, Double price, String category, Integer stockQuantity, String brand) {
@@ -101,4 +111,12 @@ public class Product {
     public void setBrand(String brand) {
         this.brand = brand;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,53 @@
+package com.restapi.model.ecommerce;
+
+public class ProductAggregate {
+
+    private String key;
+    private long productCount;
+    private long totalStock;
+    private double priceSum;
+    private Double averagePrice;
+    private Double minPrice;
+    private Double maxPrice;
+
+    public ProductAggregate() {}
+
+    public ProductAggregate(String key, long productCount, long totalStock, double priceSum, Double averagePrice,
+                            Double minPrice, Double maxPrice) {
+        this.key = key;
+        this.productCount = productCount;
+        this.totalStock = totalStock;
+        this.priceSum = priceSum;
+        this.averagePrice = averagePrice;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getProductCount() {
+        return productCount;
+    }
+
+    public long getTotalStock() {
+        return totalStock;
+    }
+
+    public double getPriceSum() {
+        return priceSum;
+    }
+
+    public Double getAveragePrice() {
+        return averagePrice;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+}
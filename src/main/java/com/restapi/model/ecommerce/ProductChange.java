@@ -0,0 +1,51 @@
+package com.restapi.model.ecommerce;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+// Append-only; rows are written by ProductChangeLog with plain JDBC and only ever removed by the retention purge
+@Entity
+@Table(name = "product_change", indexes = {
+        @Index(name = "idx_product_change_changed_at", columnList = "changed_at")
+})
+public class ProductChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "seq")
+    private Long seq;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "change_type", nullable = false, length = 16)
+    private String changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public ProductChange() {}
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getChangeType() {
+        return changeType;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,69 @@
+package com.restapi.model.ecommerce;
+
+import java.util.List;
+
+public class ProductChangePage {
+
+    private long since;
+    private long next;
+    private boolean hasMore;
+    private List<Change> changes;
+
+    public ProductChangePage() {}
+
+    public ProductChangePage(long since, long next, boolean hasMore, List<Change> changes) {
+        this.since = since;
+        this.next = next;
+        this.hasMore = hasMore;
+        this.changes = changes;
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public long getNext() {
+        return next;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    // product is the current row, or null when the product has been deleted since (a tombstone)
+    public static class Change {
+        private long seq;
+        private String type;
+        private Long productId;
+        private Product product;
+
+        public Change() {}
+
+        public Change(long seq, String type, Long productId, Product product) {
+            this.seq = seq;
+            this.type = type;
+            this.productId = productId;
+            this.product = product;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public Product getProduct() {
+            return product;
+        }
+    }
+}
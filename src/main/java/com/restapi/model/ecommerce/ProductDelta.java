@@ -0,0 +1,55 @@
+package com.restapi.model.ecommerce;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductDelta {
+    private String type;
+    private Long productId;
+    private String category;
+    private Integer stockQuantity;
+    private Double price;
+    private Integer previousStockQuantity;
+    private Double previousPrice;
+
+    public ProductDelta() {}
+
+    public ProductDelta(String type, Long productId, String category, Integer stockQuantity, Double price,
+                        Integer previousStockQuantity, Double previousPrice) {
+        this.type = type;
+        this.productId = productId;
+        this.category = category;
+        this.stockQuantity = stockQuantity;
+        this.price = price;
+        this.previousStockQuantity = previousStockQuantity;
+        this.previousPrice = previousPrice;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Integer getPreviousStockQuantity() {
+        return previousStockQuantity;
+    }
+
+    public Double getPreviousPrice() {
+        return previousPrice;
+    }
+}
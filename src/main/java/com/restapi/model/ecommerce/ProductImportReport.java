@@ -0,0 +1,80 @@
+package com.restapi.model.ecommerce;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportReport {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID, FAILED
+    }
+
+    private long received;
+    private long created;
+    private long rejected;
+    private List<Row> rows = new ArrayList<>();
+
+    public void add(Row row) {
+        rows.add(row);
+        received++;
+        if (row.getStatus() == Status.CREATED) {
+            created++;
+        } else {
+            rejected++;
+        }
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public static class Row {
+        private long row;
+        private String name;
+        private Status status;
+        private Long productId;
+        private String message;
+
+        public Row() {}
+
+        public Row(long row, String name, Status status, Long productId, String message) {
+            this.row = row;
+            this.name = name;
+            this.status = status;
+            this.productId = productId;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
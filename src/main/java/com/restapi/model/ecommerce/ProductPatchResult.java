@@ -0,0 +1,54 @@
+package com.restapi.model.ecommerce;
+
+public class ProductPatchResult {
+
+    public enum Status {
+        OK, NOT_FOUND, CONFLICT, INVALID
+    }
+
+    private Status status;
+    private Long productId;
+    private Long version;
+    private String message;
+
+    public ProductPatchResult() {}
+
+    public ProductPatchResult(Status status, Long productId, Long version, String message) {
+        this.status = status;
+        this.productId = productId;
+        this.version = version;
+        this.message = message;
+    }
+
+    public static ProductPatchResult ok(Long productId, Long version) {
+        return new ProductPatchResult(Status.OK, productId, version, null);
+    }
+
+    public static ProductPatchResult notFound(Long productId) {
+        return new ProductPatchResult(Status.NOT_FOUND, productId, null, "Product with ID " + productId + " not found");
+    }
+
+    public static ProductPatchResult conflict(Long productId, Long version, String message) {
+        return new ProductPatchResult(Status.CONFLICT, productId, version, message);
+    }
+
+    public static ProductPatchResult invalid(Long productId, String message) {
+        return new ProductPatchResult(Status.INVALID, productId, null, message);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,54 @@
+package com.restapi.model.ecommerce;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductQueryResult {
+    private List<Product> items = new ArrayList<>();
+    private long total;
+    private Map<String, Long> brands = new LinkedHashMap<>();
+    private Map<String, Long> categories = new LinkedHashMap<>();
+    private Map<String, Long> priceRanges = new LinkedHashMap<>();
+
+    public List<Product> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Product> items) {
+        this.items = items;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getBrands() {
+        return brands;
+    }
+
+    public void setBrands(Map<String, Long> brands) {
+        this.brands = brands;
+    }
+
+    public Map<String, Long> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, Long> categories) {
+        this.categories = categories;
+    }
+
+    public Map<String, Long> getPriceRanges() {
+        return priceRanges;
+    }
+
+    public void setPriceRanges(Map<String, Long> priceRanges) {
+        this.priceRanges = priceRanges;
+    }
+}
@@ -0,0 +1,29 @@
+package com.restapi.model.ecommerce;
+
+public class StockRequest {
+    private Long productId;
+    private int quantity;
+
+    public StockRequest() {}
+
+    public StockRequest(Long productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,44 @@
+package com.restapi.model.ecommerce;
+
+public class StockUpdateResult {
+
+    public enum Status {
+        OK, NOT_FOUND, INSUFFICIENT_STOCK
+    }
+
+    private Status status;
+    private Long productId;
+    private Integer stockQuantity;
+
+    public StockUpdateResult() {}
+
+    public StockUpdateResult(Status status, Long productId, Integer stockQuantity) {
+        this.status = status;
+        this.productId = productId;
+        this.stockQuantity = stockQuantity;
+    }
+
+    public static StockUpdateResult ok(Long productId, Integer stockQuantity) {
+        return new StockUpdateResult(Status.OK, productId, stockQuantity);
+    }
+
+    public static StockUpdateResult notFound(Long productId) {
+        return new StockUpdateResult(Status.NOT_FOUND, productId, null);
+    }
+
+    public static StockUpdateResult insufficient(Long productId) {
+        return new StockUpdateResult(Status.INSUFFICIENT_STOCK, productId, null);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+}
@@ -1,12 +1,19 @@
 package com.restapi.repository.ecommerce;
 
 import com.restapi.model.ecommerce.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -26,5 +33,31 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Optional<Product> findByName(String name);
 
-    boolean existsByName(String name);
+    @Query("SELECT p.name FROM Product p WHERE p.name IN :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+
+    List<Product> findAllBy(Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.productId > :lastId ORDER BY p.productId")
+    List<Product> findNextById(@Param("lastId") Long lastId, Pageable pageable);
+
+    // A row-value comparison, so the (price, product_id) index can start right after the cursor. Products without a
+    // price are not included; they come after all priced ones, through findNextWithoutPrice. Native, as HQL cannot
+    // compare tuples against parameters
+    @Query(value = "SELECT * FROM product p WHERE (p.price, p.product_id) > (:lastPrice, :lastId) ORDER BY p.price, p.product_id",
+            nativeQuery = true)
+    List<Product> findNextByPrice(@Param("lastPrice") Double lastPrice, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.price IS NULL AND p.productId > :lastId ORDER BY p.productId")
+    List<Product> findNextWithoutPrice(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.name > :lastName ORDER BY p.name")
+    List<Product> findNextByName(@Param("lastName") String lastName, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.productId")
+    Stream<Product> streamAllOrderedById();
 }
@@ -0,0 +1,26 @@
+package com.restapi.repository.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class ProductRowMapper implements RowMapper<Product> {
+
+    public static final ProductRowMapper INSTANCE = new ProductRowMapper();
+
+    @Override
+    public Product mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Product product = new Product(
+                rs.getLong("product_id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getObject("price", Double.class),
+                rs.getString("category"),
+                rs.getObject("stock_quantity", Integer.class),
+                rs.getString("brand"));
+        product.setVersion(rs.getObject("version", Long.class));
+        return product;
+    }
+}
@@ -0,0 +1,39 @@
+package com.restapi.repository.memory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public class HashIndex<T, K> implements SecondaryIndex<T, K> {
+
+    private final Function<T, K> keyFunction;
+    private final ConcurrentHashMap<K, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    public HashIndex(Function<T, K> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    @Override
+    public K key(T entity) {
+        return keyFunction.apply(entity);
+    }
+
+    @Override
+    public void add(K key, Long id) {
+        if (key != null) {
+            postings.compute(key, (k, ids) -> Postings.add(ids, id));
+        }
+    }
+
+    @Override
+    public void remove(K key, Long id) {
+        if (key != null) {
+            postings.computeIfPresent(key, (k, ids) -> Postings.remove(ids, id));
+        }
+    }
+
+    public Set<Long> ids(K key) {
+        Set<Long> ids = key == null ? null : postings.get(key);
+        return ids == null ? Set.of() : ids;
+    }
+}
@@ -0,0 +1,210 @@
+package com.restapi.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class InMemoryRepository<T> {
+
+    private final ConcurrentHashMap<Long, T> entities = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final List<SecondaryIndex<T, ?>> indexes = new CopyOnWriteArrayList<>();
+    private final Function<T, Long> idOf;
+    private final BiConsumer<T, Long> assignId;
+    private final Comparator<T> byId;
+
+    public InMemoryRepository(Function<T, Long> idOf, BiConsumer<T, Long> assignId) {
+        this.idOf = idOf;
+        this.assignId = assignId;
+        this.byId = Comparator.comparing(idOf);
+    }
+
+    // Indexes are meant to be registered up front, before the repository is shared between threads
+    public <I extends SecondaryIndex<T, ?>> I addIndex(I index) {
+        SecondaryIndex<T, ?> registered = index;
+        entities.forEach((id, entity) -> addToIndex(registered, entity, id));
+        indexes.add(registered);
+        return index;
+    }
+
+    public <K> HashIndex<T, K> addHashIndex(Function<T, K> key) {
+        return addIndex(new HashIndex<>(key));
+    }
+
+    public <K extends Comparable<? super K>> SortedIndex<T, K> addSortedIndex(Function<T, K> key) {
+        return addIndex(new SortedIndex<>(key));
+    }
+
+    // Entities without an id get the next one; entities with an id (seed data) replace whatever is stored under it
+    public T save(T entity) {
+        Long id = idOf.apply(entity);
+        if (id == null) {
+            id = nextId.getAndIncrement();
+            assignId.accept(entity, id);
+        } else {
+            long taken = id;
+            nextId.accumulateAndGet(taken + 1, Math::max);
+        }
+        entities.compute(id, (key, previous) -> {
+            if (previous != null) {
+                indexes.forEach(index -> removeFromIndex(index, previous, key));
+            }
+            indexes.forEach(index -> addToIndex(index, entity, key));
+            return entity;
+        });
+        return entity;
+    }
+
+    public Optional<T> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(entities.get(id));
+    }
+
+    public List<T> findAll() {
+        List<T> result = new ArrayList<>(entities.values());
+        result.sort(byId);
+        return result;
+    }
+
+    public List<T> findAll(Predicate<T> filter) {
+        List<T> result = new ArrayList<>();
+        for (T entity : entities.values()) {
+            if (filter.test(entity)) {
+                result.add(entity);
+            }
+        }
+        result.sort(byId);
+        return result;
+    }
+
+    public List<T> findAllById(Collection<Long> ids) {
+        List<T> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = entities.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        result.sort(byId);
+        return result;
+    }
+
+    // Rechecks the key, as an entity can move to another key between the index lookup and the read
+    public <K> List<T> findBy(HashIndex<T, K> index, K key) {
+        List<T> result = findAllById(index.ids(key));
+        result.removeIf(entity -> !Objects.equals(index.key(entity), key));
+        return result;
+    }
+
+    // Same recheck for a range: the entity's current key has to be inside [from, to]
+    public <K extends Comparable<? super K>> List<T> findBetween(SortedIndex<T, K> index, K from, K to) {
+        List<T> result = findAllById(index.ids(from, to));
+        result.removeIf(entity -> {
+            K key = index.key(entity);
+            return key == null || key.compareTo(from) < 0 || key.compareTo(to) > 0;
+        });
+        return result;
+    }
+
+    // Entities with a word starting with each of the query's words. Only the longest query word, usually the rarest,
+    // is looked up; the others are checked against the matches
+    public List<T> findByWordPrefixes(WordIndex<T> index, String query) {
+        Set<String> prefixes = WordIndex.words(query);
+        String longest = null;
+        for (String prefix : prefixes) {
+            if (longest == null || prefix.length() > longest.length()) {
+                longest = prefix;
+            }
+        }
+        if (longest == null) {
+            return new ArrayList<>();
+        }
+        List<T> result = findAllById(index.ids(longest));
+        result.removeIf(entity -> !index.matches(entity, prefixes));
+        return result;
+    }
+
+    // Up to limit entities in index order rather than id order, with the same recheck against the bounds. An entity
+    // that moves to a later key mid-scan can be visited twice, hence the seen set
+    public <K extends Comparable<? super K>> List<T> findFirst(SortedIndex<T, K> index, K from, K to, int limit) {
+        List<T> result = new ArrayList<>(Math.min(limit, 64));
+        if (limit <= 0) {
+            return result;
+        }
+        Set<Long> seen = new HashSet<>();
+        index.scan(from, to, id -> {
+            T entity = entities.get(id);
+            if (entity != null && seen.add(id)) {
+                K key = index.key(entity);
+                if (key != null && (from == null || key.compareTo(from) >= 0) && (to == null || key.compareTo(to) <= 0)) {
+                    result.add(entity);
+                }
+            }
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    // The mutation runs with the entity's slot locked, so concurrent updates of one entity never overwrite each other
+    public Optional<T> update(Long id, Consumer<T> mutation) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entities.computeIfPresent(id, (key, entity) -> {
+            List<Object> before = new ArrayList<>(indexes.size());
+            for (SecondaryIndex<T, ?> index : indexes) {
+                before.add(index.key(entity));
+            }
+            mutation.accept(entity);
+            for (int i = 0; i < indexes.size(); i++) {
+                reindex(indexes.get(i), before.get(i), entity, key);
+            }
+            return entity;
+        }));
+    }
+
+    public boolean deleteById(Long id) {
+        if (id == null) {
+            return false;
+        }
+        boolean[] removed = {false};
+        entities.computeIfPresent(id, (key, entity) -> {
+            indexes.forEach(index -> removeFromIndex(index, entity, key));
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    public int count() {
+        return entities.size();
+    }
+
+    private static <T, K> void addToIndex(SecondaryIndex<T, K> index, T entity, Long id) {
+        index.add(index.key(entity), id);
+    }
+
+    private static <T, K> void removeFromIndex(SecondaryIndex<T, K> index, T entity, Long id) {
+        index.remove(index.key(entity), id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K> void reindex(SecondaryIndex<T, K> index, Object before, T entity, Long id) {
+        K after = index.key(entity);
+        if (!Objects.equals(before, after)) {
+            index.remove((K) before, id);
+            index.add(after, id);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.restapi.repository.memory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Id sets for index keys, always updated inside the owning map's compute. Most keys only ever hold a few ids, so
+// those stay small immutable sets; only keys that grow past SMALL pay for a concurrent set of their own
+final class Postings {
+
+    private static final int SMALL = 8;
+
+    private Postings() {}
+
+    static Set<Long> add(Set<Long> ids, Long id) {
+        if (ids == null) {
+            return Set.of(id);
+        }
+        if (!(ids instanceof ConcurrentHashMap.KeySetView)) {
+            if (ids.contains(id)) {
+                return ids;
+            }
+            if (ids.size() < SMALL) {
+                Long[] grown = ids.toArray(new Long[ids.size() + 1]);
+                grown[ids.size()] = id;
+                return Set.of(grown);
+            }
+            Set<Long> large = ConcurrentHashMap.newKeySet(SMALL * 4);
+            large.addAll(ids);
+            ids = large;
+        }
+        ids.add(id);
+        return ids;
+    }
+
+    static Set<Long> remove(Set<Long> ids, Long id) {
+        if (!ids.contains(id)) {
+            return ids;
+        }
+        if (ids instanceof ConcurrentHashMap.KeySetView) {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        }
+        if (ids.size() == 1) {
+            return null;
+        }
+        Long[] shrunk = new Long[ids.size() - 1];
+        int i = 0;
+        for (Long existing : ids) {
+            if (!existing.equals(id)) {
+                shrunk[i++] = existing;
+            }
+        }
+        return Set.of(shrunk);
+    }
+}
@@ -0,0 +1,12 @@
+package com.restapi.repository.memory;
+
+// The repository works out an entity's key before and after every write and only calls add/remove when it changed.
+// Both are called while the entity's slot in the repository is locked, so they only need to be safe against other ids.
+public interface SecondaryIndex<T, K> {
+
+    K key(T entity);
+
+    void add(K key, Long id);
+
+    void remove(K key, Long id);
+}
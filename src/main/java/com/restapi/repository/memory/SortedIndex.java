@@ -0,0 +1,73 @@
+package com.restapi.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class SortedIndex<T, K extends Comparable<? super K>> implements SecondaryIndex<T, K> {
+
+    private final Function<T, K> keyFunction;
+    private final ConcurrentSkipListMap<K, Set<Long>> postings = new ConcurrentSkipListMap<>();
+
+    public SortedIndex(Function<T, K> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    @Override
+    public K key(T entity) {
+        return keyFunction.apply(entity);
+    }
+
+    @Override
+    public void add(K key, Long id) {
+        if (key != null) {
+            postings.compute(key, (k, ids) -> Postings.add(ids, id));
+        }
+    }
+
+    @Override
+    public void remove(K key, Long id) {
+        if (key != null) {
+            postings.computeIfPresent(key, (k, ids) -> Postings.remove(ids, id));
+        }
+    }
+
+    // Inclusive on both ends; only the keys in range are visited
+    public List<Long> ids(K from, K to) {
+        List<Long> result = new ArrayList<>();
+        if (from.compareTo(to) > 0) {
+            return result;
+        }
+        for (Collection<Long> ids : postings.subMap(from, true, to, true).values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    // Visits ids in key order until the visitor returns false; ids sharing a key come in no particular order, as a
+    // popular key can hold far more ids than a caller wants. Null bounds are open ends
+    public void scan(K from, K to, Predicate<Long> visitor) {
+        NavigableMap<K, Set<Long>> range = postings;
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            return;
+        }
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, true);
+        }
+        for (Set<Long> ids : range.values()) {
+            for (Long id : ids) {
+                if (!visitor.test(id)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.restapi.repository.memory;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+// Files an entity under every word of its text, case-folded, so a lookup by word prefix only visits the words that
+// start with it. The key is the entity's whole word set, which lets the repository re-key it when the text changes
+public class WordIndex<T> implements SecondaryIndex<T, Set<String>> {
+
+    private final Function<T, String> textFunction;
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+
+    public WordIndex(Function<T, String> textFunction) {
+        this.textFunction = textFunction;
+    }
+
+    public static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Checks the entity's current text directly, without splitting it into a fresh word set
+    public boolean matches(T entity, Set<String> prefixes) {
+        String text = textFunction.apply(entity);
+        if (text == null) {
+            return prefixes.isEmpty();
+        }
+        String folded = text.toLowerCase(Locale.ROOT);
+        for (String prefix : prefixes) {
+            int at = folded.indexOf(prefix);
+            while (at > 0 && Character.isLetterOrDigit(folded.charAt(at - 1))) {
+                at = folded.indexOf(prefix, at + 1);
+            }
+            if (at < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Set<String> key(T entity) {
+        return words(textFunction.apply(entity));
+    }
+
+    @Override
+    public void add(Set<String> words, Long id) {
+        for (String word : words) {
+            postings.compute(word, (k, ids) -> Postings.add(ids, id));
+        }
+    }
+
+    @Override
+    public void remove(Set<String> words, Long id) {
+        for (String word : words) {
+            postings.computeIfPresent(word, (k, ids) -> Postings.remove(ids, id));
+        }
+    }
+
+    // Every id filed under a word starting with prefix, which must already be folded
+    public Set<Long> ids(String prefix) {
+        Set<Long> result = new HashSet<>();
+        for (Set<Long> ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+}
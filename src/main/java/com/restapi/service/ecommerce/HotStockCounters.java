@@ -0,0 +1,192 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.model.ecommerce.StockUpdateResult;
+import com.restapi.repository.ecommerce.ProductRowMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class HotStockCounters {
+
+    private static final String LOAD_SQL = "SELECT stock_quantity, version FROM product WHERE product_id = ?";
+    private static final String VERSION_SQL = "SELECT version FROM product WHERE product_id = ?";
+    private static final String FLUSH_SQL = "UPDATE product SET stock_quantity = COALESCE(stock_quantity, 0) + ?, "
+            + "version = version + 1 WHERE product_id = ? AND version = ? RETURNING *";
+
+    @Value("${products.stock.hot-skus:}")
+    private Set<Long> hotSkus;
+
+    @Value("${products.stock.stripes:8}")
+    private int stripeCount;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Long, HotStock> counters = new ConcurrentHashMap<>();
+
+    public boolean isHot(Long productId) {
+        return hotSkus.contains(productId);
+    }
+
+    public StockUpdateResult adjust(Long productId, int delta) {
+        while (true) {
+            HotStock stock = counters.computeIfAbsent(productId, this::load);
+            if (stock == null) {
+                return StockUpdateResult.notFound(productId);
+            }
+            boolean applied = delta >= 0 ? stock.add(delta) : stock.take(-delta);
+            // A counter discarded while the delta landed on it is overwritten by the write that discarded it, or
+            // already was, so the delta goes again to the counter that replaces it
+            if (stock.discarded) {
+                continue;
+            }
+            return applied ? StockUpdateResult.ok(productId, stock.total()) : StockUpdateResult.insufficient(productId);
+        }
+    }
+
+    // Called by writers that set the stock outright, before they read the row and again before they commit. It must
+    // not wait for a flush: the flush may itself be waiting for the writer's row lock
+    public void discard(Long productId) {
+        HotStock stock = counters.remove(productId);
+        if (stock != null) {
+            stock.discarded = true;
+        }
+    }
+
+    // The last flush runs on context close rather than in a destroy callback: by the time beans are being destroyed,
+    // the change event it publishes can no longer reach its listeners and the whole flush fails
+    @Scheduled(fixedDelayString = "${products.stock.flush-interval-ms:500}")
+    @EventListener(ContextClosedEvent.class)
+    public void flushAll() {
+        for (Map.Entry<Long, HotStock> entry : counters.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // The update only applies to the version the counter last saw. A writer that set the stock discards the counter
+    // before it commits, so once the row has moved on a discarded counter's deltas are dropped rather than landing on
+    // top of the new stock; any other change only moved the version, and the delta is applied to the new one
+    private void flush(Long productId, HotStock stock) {
+        synchronized (stock) {
+            int current = stock.total();
+            int delta = current - stock.flushedTotal;
+            while (delta != 0 && !stock.discarded) {
+                long version = stock.version;
+                List<Product> rows = new TransactionTemplate(transactionManager).execute(status -> {
+                    List<Product> updated = jdbcTemplate.query(FLUSH_SQL, ProductRowMapper.INSTANCE, delta, productId, version);
+                    if (!updated.isEmpty()) {
+                        Product after = updated.get(0);
+                        Product before = ProductChangedEvent.snapshot(after);
+                        before.setStockQuantity(after.getStockQuantity() - delta);
+                        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(before, after));
+                    }
+                    return updated;
+                });
+                if (!rows.isEmpty()) {
+                    stock.flushedTotal = current;
+                    stock.version = rows.get(0).getVersion();
+                    return;
+                }
+                List<Long> versions = jdbcTemplate.queryForList(VERSION_SQL, Long.class, productId);
+                if (versions.isEmpty()) {
+                    counters.remove(productId, stock);
+                    stock.discarded = true;
+                    return;
+                }
+                stock.version = versions.get(0);
+            }
+        }
+    }
+
+    private HotStock load(Long productId) {
+        List<HotStock> rows = jdbcTemplate.query(LOAD_SQL,
+                (rs, rowNum) -> new HotStock(rs.getInt("stock_quantity"), rs.getLong("version"), stripeCount), productId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static class HotStock {
+        private final AtomicInteger[] stripes;
+        private int flushedTotal;
+        private long version;
+        private volatile boolean discarded;
+
+        HotStock(int stock, long version, int stripeCount) {
+            stripes = new AtomicInteger[Math.max(1, stripeCount)];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new AtomicInteger();
+            }
+            flushedTotal = stock;
+            this.version = version;
+            spread(stock);
+        }
+
+        int total() {
+            int total = 0;
+            for (AtomicInteger stripe : stripes) {
+                total += stripe.get();
+            }
+            return total;
+        }
+
+        boolean add(int quantity) {
+            stripes[home()].addAndGet(quantity);
+            return true;
+        }
+
+        boolean take(int quantity) {
+            int start = home();
+            for (int i = 0; i < stripes.length; i++) {
+                AtomicInteger stripe = stripes[(start + i) % stripes.length];
+                int available;
+                while ((available = stripe.get()) >= quantity) {
+                    if (stripe.compareAndSet(available, available - quantity)) {
+                        return true;
+                    }
+                }
+            }
+            return takeAcrossStripes(quantity);
+        }
+
+        private synchronized boolean takeAcrossStripes(int quantity) {
+            int total = 0;
+            for (AtomicInteger stripe : stripes) {
+                total += stripe.getAndSet(0);
+            }
+            boolean taken = total >= quantity;
+            spread(taken ? total - quantity : total);
+            return taken;
+        }
+
+        private void spread(int stock) {
+            int share = stock / stripes.length;
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i].addAndGet(i == 0 ? stock - share * (stripes.length - 1) : share);
+            }
+        }
+
+        private int home() {
+            return (int) (Thread.currentThread().getId() % stripes.length);
+        }
+    }
+}
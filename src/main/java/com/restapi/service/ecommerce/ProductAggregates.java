@@ -0,0 +1,310 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.model.ecommerce.ProductAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+@Component
+public class ProductAggregates {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductAggregates.class);
+
+    public enum Dimension {
+        CATEGORY("category", Product::getCategory),
+        BRAND("brand", Product::getBrand);
+
+        private final String column;
+        private final Function<Product, String> key;
+
+        Dimension(String column, Function<Product, String> key) {
+            this.column = column;
+            this.key = key;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Dimension, Map<String, Totals>> totals = new EnumMap<>(Dimension.class);
+
+    // Listeners apply events under the read lock, so many can run at once; a refresh swaps its results in under the
+    // write lock after replaying whatever it journaled while its query ran
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Map<Dimension, List<ProductChangedEvent>> journals = new EnumMap<>(Dimension.class);
+    private volatile boolean ready;
+
+    public ProductAggregates() {
+        for (Dimension dimension : Dimension.values()) {
+            totals.put(dimension, new ConcurrentHashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${products.aggregates.reconcile-interval-ms:600000}",
+            fixedDelayString = "${products.aggregates.reconcile-interval-ms:600000}")
+    public synchronized void reconcile() {
+        for (Dimension dimension : Dimension.values()) {
+            refresh(dimension, null);
+        }
+        ready = true;
+    }
+
+    // Removing a product that held the min or max price leaves the bound unknown until its key is re-queried
+    @Scheduled(fixedDelayString = "${products.aggregates.refresh-interval-ms:1000}")
+    public synchronized void refreshStaleBounds() {
+        if (!ready) {
+            return;
+        }
+        for (Dimension dimension : Dimension.values()) {
+            Set<String> stale = new HashSet<>();
+            totals.get(dimension).forEach((key, value) -> {
+                if (value.boundsStale) {
+                    stale.add(key);
+                }
+            });
+            if (!stale.isEmpty()) {
+                refresh(dimension, stale);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            for (Dimension dimension : Dimension.values()) {
+                List<ProductChangedEvent> journal = journals.get(dimension);
+                if (journal != null) {
+                    journal.add(event);
+                }
+                apply(totals.get(dimension), dimension, event, null);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<ProductAggregate> aggregates(Dimension dimension) {
+        Map<String, Totals> source = ready ? totals.get(dimension) : query(dimension, null);
+        List<ProductAggregate> result = new ArrayList<>(source.size());
+        source.forEach((key, value) -> result.add(value.toAggregate(key)));
+        result.sort(Comparator.comparing(ProductAggregate::getKey));
+        return result;
+    }
+
+    public ProductAggregate aggregate(Dimension dimension, String key) {
+        Totals value = ready ? totals.get(dimension).get(key) : query(dimension, Set.of(key)).get(key);
+        return value == null ? null : value.toAggregate(key);
+    }
+
+    private void refresh(Dimension dimension, Set<String> keys) {
+        List<ProductChangedEvent> journal = Collections.synchronizedList(new ArrayList<>());
+        swapLock.writeLock().lock();
+        try {
+            journals.put(dimension, journal);
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        Map<String, Totals> fresh;
+        try {
+            fresh = new HashMap<>(query(dimension, keys));
+        } catch (RuntimeException e) {
+            swapLock.writeLock().lock();
+            try {
+                journals.remove(dimension);
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            journals.remove(dimension);
+            Map<String, Totals> current = totals.get(dimension);
+            if (keys == null) {
+                // Events journaled here committed while the query ran; the query may or may not have seen them, and
+                // replaying them errs on the side of counting a late commit twice until the next reconcile
+                for (ProductChangedEvent event : journal) {
+                    apply(fresh, dimension, event, null);
+                }
+                logDrift(dimension, current, fresh);
+                current.keySet().retainAll(fresh.keySet());
+                current.putAll(fresh);
+            } else {
+                // The listener already keeps counts and sums exact, so only the bounds are taken from the query.
+                // Checking them against the journal is safe whether or not the query saw an event
+                for (String key : keys) {
+                    current.computeIfPresent(key, (k, live) -> rebound(live, fresh.get(k), k, dimension, journal));
+                }
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private static Totals rebound(Totals live, Totals queried, String key, Dimension dimension,
+                                  List<ProductChangedEvent> journal) {
+        Double min = queried == null ? null : queried.minPrice;
+        Double max = queried == null ? null : queried.maxPrice;
+        for (ProductChangedEvent event : journal) {
+            Product after = event.getAfter();
+            if (after != null && after.getPrice() != null && key.equals(dimension.key.apply(after))) {
+                min = Totals.bound(min, after.getPrice(), Math::min);
+                max = Totals.bound(max, after.getPrice(), Math::max);
+            }
+        }
+        boolean stale = false;
+        for (ProductChangedEvent event : journal) {
+            Product before = event.getBefore();
+            if (before != null && before.getPrice() != null && key.equals(dimension.key.apply(before))
+                    && (before.getPrice().equals(min) || before.getPrice().equals(max))) {
+                // The query may have run before this price was removed; check again on the next pass
+                stale = true;
+            }
+        }
+        return live.withBounds(min, max, stale);
+    }
+
+    private Map<String, Totals> query(Dimension dimension, Set<String> keys) {
+        String column = dimension.column;
+        StringBuilder sql = new StringBuilder("SELECT ").append(column).append(" AS group_key, COUNT(*) AS product_count, ")
+                .append("COALESCE(SUM(stock_quantity), 0) AS total_stock, COUNT(price) AS priced_count, ")
+                .append("COALESCE(SUM(price), 0) AS price_sum, MIN(price) AS min_price, MAX(price) AS max_price ")
+                .append("FROM product WHERE ").append(column).append(" IS NOT NULL");
+        if (keys != null) {
+            sql.append(" AND ").append(column).append(" IN (").append(String.join(", ", Collections.nCopies(keys.size(), "?"))).append(")");
+        }
+        sql.append(" GROUP BY ").append(column);
+
+        Map<String, Totals> result = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            result.put(rs.getString("group_key"), new Totals(rs.getLong("product_count"), rs.getLong("total_stock"),
+                    rs.getLong("priced_count"), rs.getDouble("price_sum"),
+                    rs.getObject("min_price", Double.class), rs.getObject("max_price", Double.class), false));
+        }, keys == null ? new Object[0] : keys.toArray());
+        return result;
+    }
+
+    private static void apply(Map<String, Totals> target, Dimension dimension, ProductChangedEvent event, Set<String> keys) {
+        if (event.getBefore() != null) {
+            String key = dimension.key.apply(event.getBefore());
+            if (key != null && (keys == null || keys.contains(key))) {
+                target.computeIfPresent(key, (k, value) -> value.minus(event.getBefore()));
+            }
+        }
+        if (event.getAfter() != null) {
+            String key = dimension.key.apply(event.getAfter());
+            if (key != null && (keys == null || keys.contains(key))) {
+                target.merge(key, Totals.of(event.getAfter()), Totals::plus);
+            }
+        }
+    }
+
+    private static void logDrift(Dimension dimension, Map<String, Totals> current, Map<String, Totals> fresh) {
+        long drifted = fresh.entrySet().stream()
+                .filter(entry -> {
+                    Totals previous = current.get(entry.getKey());
+                    return previous == null || previous.count != entry.getValue().count
+                            || previous.stock != entry.getValue().stock;
+                })
+                .count();
+        if (drifted > 0) {
+            log.info("Reconciled {} {} aggregates that had drifted from the table", drifted, dimension.column);
+        }
+    }
+
+    // Immutable, so readers always see one consistent set of numbers for a key
+    private static final class Totals {
+        private final long count;
+        private final long stock;
+        private final long pricedCount;
+        private final double priceSum;
+        private final Double minPrice;
+        private final Double maxPrice;
+        private final boolean boundsStale;
+
+        Totals(long count, long stock, long pricedCount, double priceSum, Double minPrice, Double maxPrice,
+               boolean boundsStale) {
+            this.count = count;
+            this.stock = stock;
+            this.pricedCount = pricedCount;
+            this.priceSum = priceSum;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.boundsStale = boundsStale;
+        }
+
+        static Totals of(Product product) {
+            Double price = product.getPrice();
+            return new Totals(1, stockOf(product), price == null ? 0 : 1, price == null ? 0 : price, price, price, false);
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(count + other.count, stock + other.stock, pricedCount + other.pricedCount,
+                    priceSum + other.priceSum, bound(minPrice, other.minPrice, Math::min),
+                    bound(maxPrice, other.maxPrice, Math::max), boundsStale || other.boundsStale);
+        }
+
+        Totals minus(Product product) {
+            if (count <= 1) {
+                return null;
+            }
+            Double price = product.getPrice();
+            if (price == null) {
+                return new Totals(count - 1, stock - stockOf(product), pricedCount, priceSum, minPrice, maxPrice, boundsStale);
+            }
+            boolean stale = boundsStale || price.equals(minPrice) || price.equals(maxPrice);
+            return new Totals(count - 1, stock - stockOf(product), pricedCount - 1, priceSum - price,
+                    minPrice, maxPrice, stale);
+        }
+
+        Totals withBounds(Double min, Double max, boolean stale) {
+            return new Totals(count, stock, pricedCount, priceSum, min, max, stale);
+        }
+
+        ProductAggregate toAggregate(String key) {
+            return new ProductAggregate(key, count, stock, priceSum, pricedCount == 0 ? null : priceSum / pricedCount,
+                    pricedCount == 0 ? null : minPrice, pricedCount == 0 ? null : maxPrice);
+        }
+
+        private static long stockOf(Product product) {
+            return product.getStockQuantity() == null ? 0 : product.getStockQuantity();
+        }
+
+        private static Double bound(Double left, Double right, BinaryOperator<Double> pick) {
+            if (left == null) {
+                return right;
+            }
+            return right == null ? left : pick.apply(left, right);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.restapi.service.ecommerce;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.restapi.model.ecommerce.Product;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+@Component
+public class ProductCache {
+
+    @Value("${products.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${products.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${products.cache.negative-ttl:5s}")
+    private Duration negativeTtl;
+
+    private final LongAdder negativeHits = new LongAdder();
+    private Cache<Long, Optional<Product>> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Long, Optional<Product>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<Product> value, long currentTime) {
+                        return (value.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<Product> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<Product> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Product> get(Long id, Function<Long, Optional<Product>> loader) {
+        Optional<Product> cached = cache.policy().getIfPresentQuietly(id);
+        if (cached != null && cached.isEmpty()) {
+            negativeHits.increment();
+        }
+        return cache.get(id, key -> loader.apply(key).map(ProductChangedEvent::snapshot));
+    }
+
+    public List<Product> getAll(List<Long> ids, Function<Set<Long>, Map<Long, Product>> loader) {
+        Map<Long, Optional<Product>> found = cache.getAll(ids, missing -> {
+            Set<Long> keys = Set.copyOf(missing);
+            Map<Long, Product> loaded = loader.apply(keys);
+            Map<Long, Optional<Product>> result = new HashMap<>();
+            for (Long id : keys) {
+                result.put(id, Optional.ofNullable(loaded.get(id)).map(ProductChangedEvent::snapshot));
+            }
+            return result;
+        });
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Optional<Product> product = found.get(id);
+            if (product != null && product.isPresent()) {
+                products.add(product.get());
+            }
+        }
+        return products;
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("maximumSize", maximumSize);
+        result.put("hits", stats.hitCount());
+        result.put("negativeHits", negativeHits.sum());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("loads", stats.loadCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+}
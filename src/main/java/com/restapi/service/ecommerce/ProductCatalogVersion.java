@@ -0,0 +1,35 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.config.ReplicaRouting;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductCatalogVersion {
+
+    // Every write adds product_change entries in its own transaction, whichever instance made it, so the log dates the
+    // whole catalog. Sequence numbers are taken just before commit and can still become visible out of order, so the
+    // entries just below the newest are counted as well: a late commit there changes the count if not the maximum
+    private static final int LATE_COMMIT_WINDOW = 1000;
+    private static final String VERSION_SQL = "SELECT head.seq, (SELECT COUNT(*) FROM product_change c "
+            + "WHERE c.seq > head.seq - " + LATE_COMMIT_WINDOW + ") FROM (SELECT MAX(seq) AS seq FROM product_change) head";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaRouting replicaRouting;
+
+    // Weak tags: the same version is served as JSON, CBOR or Smile, gzipped or not, and Tomcat
+    // refuses to compress a response that carries a strong ETag. Read through the same routing as the lists, so a
+    // lagging replica gives a tag no newer than the rows it serves
+    public String etag() {
+        return replicaRouting.read(() -> jdbcTemplate.queryForObject(VERSION_SQL,
+                (rs, row) -> "W/\"c" + rs.getLong(1) + "-" + rs.getLong(2) + "\""));
+    }
+
+    public static String etag(Long version) {
+        return "W/\"v" + (version == null ? 0 : version) + "\"";
+    }
+}
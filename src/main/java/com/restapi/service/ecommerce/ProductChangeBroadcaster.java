@@ -0,0 +1,222 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.model.ecommerce.ProductDelta;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Component
+public class ProductChangeBroadcaster {
+
+    @Value("${products.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${products.stream.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${products.stream.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private ExecutorService dispatcher;
+
+    @PostConstruct
+    void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("product-stream-");
+        threadFactory.setDaemon(true);
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, threadFactory);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        dispatcher.shutdownNow();
+    }
+
+    public SseEmitter subscribe(Set<String> categories, Set<Long> productIds) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter,
+                categories == null ? Set.of() : categories.stream().map(ProductChangeBroadcaster::fold).collect(Collectors.toSet()),
+                productIds == null ? Set.of() : Set.copyOf(productIds));
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        ProductDelta delta = toDelta(event);
+        if (delta == null) {
+            return;
+        }
+        long id = sequence.incrementAndGet();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(event)) {
+                subscriber.offer(id, delta);
+                schedule(subscriber);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${products.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(subscriber::drain);
+        }
+    }
+
+    private static ProductDelta toDelta(ProductChangedEvent event) {
+        Product before = event.getBefore();
+        Product after = event.getAfter();
+        switch (event.getType()) {
+            case CREATED:
+                return new ProductDelta("created", after.getProductId(), after.getCategory(),
+                        after.getStockQuantity(), after.getPrice(), null, null);
+            case DELETED:
+                return new ProductDelta("deleted", before.getProductId(), before.getCategory(), null, null, null, null);
+            default:
+                boolean stockChanged = !Objects.equals(before.getStockQuantity(), after.getStockQuantity());
+                boolean priceChanged = !Objects.equals(before.getPrice(), after.getPrice());
+                if (!stockChanged && !priceChanged) {
+                    return null;
+                }
+                return new ProductDelta("updated", after.getProductId(), after.getCategory(),
+                        after.getStockQuantity(), after.getPrice(),
+                        stockChanged ? before.getStockQuantity() : null,
+                        priceChanged ? before.getPrice() : null);
+        }
+    }
+
+    private static String fold(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> categories;
+        private final Set<Long> productIds;
+        private final ArrayDeque<PendingDelta> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private long dropped;
+        private boolean heartbeatDue;
+
+        Subscriber(SseEmitter emitter, Set<String> categories, Set<Long> productIds) {
+            this.emitter = emitter;
+            this.categories = categories;
+            this.productIds = productIds;
+        }
+
+        boolean accepts(ProductChangedEvent event) {
+            if (!productIds.isEmpty() && !productIds.contains(event.getProductId())) {
+                return false;
+            }
+            if (categories.isEmpty()) {
+                return true;
+            }
+            return (event.getBefore() != null && categories.contains(fold(event.getBefore().getCategory())))
+                    || (event.getAfter() != null && categories.contains(fold(event.getAfter().getCategory())));
+        }
+
+        synchronized void offer(long id, ProductDelta delta) {
+            if (buffer.size() >= bufferSize) {
+                buffer.pollFirst();
+                dropped++;
+            }
+            buffer.addLast(new PendingDelta(id, delta));
+        }
+
+        synchronized void requestHeartbeat() {
+            heartbeatDue = true;
+        }
+
+        private synchronized boolean hasWork() {
+            return !buffer.isEmpty() || dropped > 0 || heartbeatDue;
+        }
+
+        void drain() {
+            try {
+                while (true) {
+                    PendingDelta next;
+                    long droppedSinceLastSend;
+                    boolean heartbeat;
+                    synchronized (this) {
+                        next = buffer.pollFirst();
+                        droppedSinceLastSend = dropped;
+                        dropped = 0;
+                        heartbeat = heartbeatDue;
+                        heartbeatDue = false;
+                    }
+                    if (droppedSinceLastSend > 0) {
+                        emitter.send(SseEmitter.event().name("dropped").data(droppedSinceLastSend));
+                    }
+                    if (heartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(next.id))
+                            .name("product")
+                            .data(next.delta, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (hasWork()) {
+                schedule(this);
+            }
+        }
+    }
+
+    private static final class PendingDelta {
+        private final long id;
+        private final ProductDelta delta;
+
+        PendingDelta(long id, ProductDelta delta) {
+            this.id = id;
+            this.delta = delta;
+        }
+    }
+}
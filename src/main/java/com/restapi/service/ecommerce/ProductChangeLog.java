@@ -0,0 +1,124 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.model.ecommerce.ProductChangePage;
+import com.restapi.repository.ecommerce.ProductRowMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class ProductChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeLog.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product_change (product_id, change_type, changed_at) VALUES (?, ?, ?)";
+    private static final String PAGE_SQL =
+            "SELECT c.seq, c.change_type, c.product_id AS changed_product_id, p.* FROM product_change c "
+                    + "LEFT JOIN product p ON p.product_id = c.product_id "
+                    + "WHERE c.seq > ? AND c.changed_at <= ? ORDER BY c.seq LIMIT ?";
+    private static final int MAX_PAGE_SIZE = 5000;
+
+    @Value("${products.changes.settle:2s}")
+    private Duration settle;
+
+    @Value("${products.changes.retention:7d}")
+    private Duration retention;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // A plain listener, not an after-commit one: the entry has to be written in the same transaction as the change
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Object[] entry = {event.getProductId(), event.getType().name(), Timestamp.from(Instant.now())};
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            jdbcTemplate.update(INSERT_SQL, entry);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Object[]> batch = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Restamped at commit time, so the settle window starts when the entries are about to become visible
+                    Timestamp now = Timestamp.from(Instant.now());
+                    batch.forEach(row -> row[2] = now);
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProductChangeLog.this);
+                }
+            });
+            pending = batch;
+        }
+        pending.add(entry);
+    }
+
+    // The purge keeps its newest entry, so anything older than the oldest remaining entry may have been dropped
+    public boolean isExpired(long since) {
+        Long oldest = jdbcTemplate.queryForObject("SELECT MIN(seq) FROM product_change", Long.class);
+        return oldest != null && since < oldest - 1;
+    }
+
+    public long head() {
+        Long newest = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM product_change", Long.class);
+        return newest == null ? 0 : newest;
+    }
+
+    public ProductChangePage page(long since, int limit) {
+        // Sequence numbers are handed out before commit, so a slow transaction can make a lower number visible after
+        // a higher one; entries younger than the settle window are held back until that can no longer happen
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Timestamp settled = Timestamp.from(Instant.now().minus(settle));
+        Map<Long, ProductChangePage.Change> latest = new LinkedHashMap<>();
+        long[] next = {since};
+        int[] rows = {0};
+        jdbcTemplate.query(PAGE_SQL, rs -> {
+            long seq = rs.getLong("seq");
+            Long productId = rs.getLong("changed_product_id");
+            Product product = rs.getObject("version") == null ? null : ProductRowMapper.INSTANCE.mapRow(rs, rows[0]);
+            // Only the newest entry per product is worth sending, as every entry carries the current row anyway
+            latest.remove(productId);
+            latest.put(productId, new ProductChangePage.Change(seq, rs.getString("change_type"), productId, product));
+            next[0] = seq;
+            rows[0]++;
+        }, since, settled, size);
+        return new ProductChangePage(since, next[0], rows[0] == size, new ArrayList<>(latest.values()));
+    }
+
+    @Scheduled(fixedDelayString = "${products.changes.purge-interval-ms:3600000}")
+    public void purge() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(retention));
+        Long newest = jdbcTemplate.queryForObject(
+                "SELECT MAX(seq) FROM product_change WHERE changed_at < ?", Long.class, cutoff);
+        if (newest == null) {
+            return;
+        }
+        int removed = jdbcTemplate.update("DELETE FROM product_change WHERE seq < ?", newest);
+        if (removed > 0) {
+            log.info("Purged {} product change entries before seq {}", removed, newest);
+        }
+    }
+}
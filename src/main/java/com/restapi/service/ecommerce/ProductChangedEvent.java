@@ -0,0 +1,61 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, STOCK_CHANGED, DELETED
+    }
+
+    private final Type type;
+    private final Long productId;
+    private final Product before;
+    private final Product after;
+
+    public ProductChangedEvent(Type type, Long productId, Product before, Product after) {
+        this.type = type;
+        this.productId = productId;
+        this.before = before;
+        this.after = after;
+    }
+
+    public static ProductChangedEvent created(Product after) {
+        return new ProductChangedEvent(Type.CREATED, after.getProductId(), null, snapshot(after));
+    }
+
+    public static ProductChangedEvent updated(Product before, Product after) {
+        return new ProductChangedEvent(Type.UPDATED, after.getProductId(), before, snapshot(after));
+    }
+
+    public static ProductChangedEvent stockChanged(Product before, Product after) {
+        return new ProductChangedEvent(Type.STOCK_CHANGED, after.getProductId(), before, snapshot(after));
+    }
+
+    public static ProductChangedEvent deleted(Product before) {
+        return new ProductChangedEvent(Type.DELETED, before.getProductId(), before, null);
+    }
+
+    public static Product snapshot(Product product) {
+        Product copy = new Product(product.getProductId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getCategory(), product.getStockQuantity(), product.getBrand());
+        copy.setVersion(product.getVersion());
+        return copy;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Product getBefore() {
+        return before;
+    }
+
+    public Product getAfter() {
+        return after;
+    }
+}
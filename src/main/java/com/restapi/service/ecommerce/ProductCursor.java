@@ -0,0 +1,63 @@
+package com.restapi.service.ecommerce;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+public class ProductCursor {
+
+    public enum SortKey {
+        ID, PRICE, NAME;
+
+        public static SortKey from(String value) {
+            if (value == null || value.isBlank()) {
+                return ID;
+            }
+            try {
+                return SortKey.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported sort key '" + value + "', use id, price or name");
+            }
+        }
+    }
+
+    private final SortKey sortKey;
+    private final Long lastId;
+    private final String lastValue;
+
+    public ProductCursor(SortKey sortKey, Long lastId, String lastValue) {
+        this.sortKey = sortKey;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + ":" + lastId + ":" + (lastValue == null ? "" : "=" + lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            Long lastId = Long.valueOf(parts[1]);
+            String lastValue = parts[2].isEmpty() ? null : parts[2].substring(1);
+            return new ProductCursor(sortKey, lastId, lastValue);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
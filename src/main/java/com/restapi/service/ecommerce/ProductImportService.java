@@ -0,0 +1,191 @@
+package com.restapi.service.ecommerce;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restapi.model.ecommerce.Product;
+import com.restapi.model.ecommerce.ProductImportReport;
+import com.restapi.model.ecommerce.ProductImportReport.Status;
+import com.restapi.repository.ecommerce.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class ProductImportService {
+
+    private static final String ALLOCATE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('product', 'product_id')) FROM generate_series(1, ?)";
+    private static final String INSERT_SQL =
+            "INSERT INTO product (product_id, name, description, price, category, stock_quantity, brand, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+
+    @Value("${products.import.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductNameFilter productNameFilter;
+
+    public ProductImportReport importProducts(InputStream body) throws IOException {
+        ProductImportReport report = new ProductImportReport();
+        Set<String> seenNames = new HashSet<>();
+        List<Product> pending = new ArrayList<>(batchSize);
+        ProductImportReport.Row parseError = null;
+        long row = 0;
+
+        try (MappingIterator<Product> products = objectMapper.readerFor(Product.class).readValues(body)) {
+            while (products.hasNextValue()) {
+                pending.add(products.nextValue());
+                row++;
+                if (pending.size() == batchSize) {
+                    importChunk(pending, row - pending.size() + 1, seenNames, report);
+                    pending.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            parseError = new ProductImportReport.Row(row + 1, null, Status.FAILED, null,
+                    "Malformed product: " + e.getOriginalMessage());
+        }
+
+        if (!pending.isEmpty()) {
+            importChunk(pending, row - pending.size() + 1, seenNames, report);
+        }
+        if (parseError != null) {
+            report.add(parseError);
+        }
+        return report;
+    }
+
+    private void importChunk(List<Product> products, long firstRow, Set<String> seenNames, ProductImportReport report) {
+        ProductImportReport.Row[] results = new ProductImportReport.Row[products.size()];
+        List<String> candidateNames = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            String name = products.get(i).getName();
+            if (name == null || name.isBlank()) {
+                results[i] = new ProductImportReport.Row(firstRow + i, name, Status.INVALID, null, "Name is required");
+            } else if (!seenNames.add(name)) {
+                results[i] = new ProductImportReport.Row(firstRow + i, name, Status.DUPLICATE, null,
+                        "Name appears earlier in this import");
+            } else {
+                candidateNames.add(name);
+            }
+        }
+
+        // Names the filter has never seen are definitely new and need no lookup
+        List<String> maybeExisting = new ArrayList<>();
+        for (String name : candidateNames) {
+            if (productNameFilter.mightExist(name)) {
+                maybeExisting.add(name);
+            }
+        }
+        Set<String> existingNames = maybeExisting.isEmpty() ? Set.of() : productRepository.findExistingNames(maybeExisting);
+        List<Product> toInsert = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            Product product = products.get(i);
+            if (existingNames.contains(product.getName())) {
+                results[i] = new ProductImportReport.Row(firstRow + i, product.getName(), Status.DUPLICATE, null,
+                        "Product with name '" + product.getName() + "' already exists");
+            } else {
+                toInsert.add(product);
+                positions.add(i);
+            }
+        }
+
+        if (!toInsert.isEmpty()) {
+            List<Long> ids = jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, toInsert.size());
+            for (int i = 0; i < toInsert.size(); i++) {
+                toInsert.get(i).setProductId(ids.get(i));
+                toInsert.get(i).setVersion(0L);
+            }
+            toInsert.forEach(product -> productNameFilter.add(product.getName()));
+            List<String> failures = insert(toInsert);
+            for (int i = 0; i < toInsert.size(); i++) {
+                Product product = toInsert.get(i);
+                int position = positions.get(i);
+                if (failures.get(i) == null) {
+                    results[position] = new ProductImportReport.Row(firstRow + position, product.getName(),
+                            Status.CREATED, product.getProductId(), null);
+                } else {
+                    results[position] = new ProductImportReport.Row(firstRow + position, product.getName(),
+                            Status.FAILED, null, failures.get(i));
+                }
+            }
+        }
+
+        for (ProductImportReport.Row result : results) {
+            report.add(result);
+        }
+    }
+
+    private List<String> insert(List<Product> products) {
+        List<String> failures = new ArrayList<>(products.size());
+        try {
+            // Events go out inside the transaction so the change log entries commit together with the rows
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, products, products.size(), this::bind);
+                products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.created(product)));
+            });
+            for (int i = 0; i < products.size(); i++) {
+                failures.add(null);
+            }
+        } catch (DataAccessException batchFailure) {
+            // A concurrent writer won a name between the duplicate check and the batch; isolate the offending rows
+            for (Product product : products) {
+                try {
+                    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, product));
+                        eventPublisher.publishEvent(ProductChangedEvent.created(product));
+                    });
+                    failures.add(null);
+                } catch (DataAccessException e) {
+                    failures.add(e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        return failures;
+    }
+
+    private void bind(PreparedStatement ps, Product product) throws SQLException {
+        ps.setLong(1, product.getProductId());
+        ps.setString(2, product.getName());
+        ps.setString(3, product.getDescription());
+        ps.setObject(4, product.getPrice(), Types.DOUBLE);
+        ps.setString(5, product.getCategory());
+        ps.setObject(6, product.getStockQuantity(), Types.INTEGER);
+        ps.setString(7, product.getBrand());
+    }
+}
@@ -0,0 +1,105 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+
+@Component
+public class ProductNameFilter {
+
+    private static final int FETCH_SIZE = 5000;
+
+    @Value("${products.names.filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${products.names.filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Object lock = new Object();
+    private volatile BloomFilter filter;
+    private BloomFilter building;
+    private volatile boolean ready;
+
+    // Deleted and renamed products leave their old names behind, so the filter is rebuilt from scratch now and then
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${products.names.filter.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${products.names.filter.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        BloomFilter next = null;
+        try {
+            next = transaction.execute(status -> {
+                Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Long.class);
+                BloomFilter loading = new BloomFilter(Math.max(expectedInsertions, rows == null ? 0 : rows * 2), falsePositiveRate);
+                synchronized (lock) {
+                    building = loading;
+                }
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement("SELECT name FROM product");
+                    statement.setFetchSize(FETCH_SIZE);
+                    return statement;
+                }, (RowCallbackHandler) rs -> loading.add(rs.getString(1)));
+                return loading;
+            });
+        } finally {
+            synchronized (lock) {
+                if (next != null) {
+                    filter = next;
+                }
+                building = null;
+            }
+        }
+        ready = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getAfter() != null) {
+            add(event.getAfter().getName());
+        }
+    }
+
+    // Callers add a name before inserting it: a failed insert only costs a false positive, never a false negative
+    public void add(String name) {
+        if (name == null) {
+            return;
+        }
+        synchronized (lock) {
+            if (filter != null) {
+                filter.add(name);
+            }
+            if (building != null) {
+                building.add(name);
+            }
+        }
+    }
+
+    public boolean mightExist(String name) {
+        if (!ready) {
+            return true;
+        }
+        return filter.mightContain(name);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
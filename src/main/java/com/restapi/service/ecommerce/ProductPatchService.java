@@ -0,0 +1,166 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.model.ecommerce.ProductPatch;
+import com.restapi.model.ecommerce.ProductPatchResult;
+import com.restapi.repository.ecommerce.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductPatchService {
+
+    @Value("${products.patch.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${products.patch.max-attempts:3}")
+    private int maxAttempts;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductNameFilter productNameFilter;
+
+    public List<ProductPatchResult> patch(List<ProductPatch> patches) {
+        if (patches.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " products can be patched per request");
+        }
+
+        ProductPatchResult[] results = new ProductPatchResult[patches.size()];
+        Map<Long, Integer> positions = new LinkedHashMap<>();
+        for (int i = 0; i < patches.size(); i++) {
+            Long productId = patches.get(i).getProductId();
+            if (productId == null) {
+                results[i] = ProductPatchResult.invalid(null, "Product ID is required");
+            } else if (positions.putIfAbsent(productId, i) != null) {
+                results[i] = ProductPatchResult.invalid(productId, "Product ID " + productId + " appears more than once");
+            }
+        }
+        discardHotStock(patches, positions);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; !positions.isEmpty(); attempt++) {
+            try {
+                transaction.execute(status -> apply(patches, positions)).forEach((i, result) -> results[i] = result);
+                break;
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                // A concurrent writer bumped a row, or took one of the new names, between the read and the batched
+                // UPDATE; reload and re-check versions and names
+                if (attempt >= maxAttempts) {
+                    positions.forEach((productId, i) -> results[i] = ProductPatchResult.conflict(productId, null,
+                            "Product with ID " + productId + " was modified concurrently"));
+                    break;
+                }
+            }
+        }
+
+        discardHotStock(patches, positions);
+        return Arrays.asList(results);
+    }
+
+    private Map<Integer, ProductPatchResult> apply(List<ProductPatch> patches, Map<Long, Integer> positions) {
+        Map<Long, Product> products = productRepository.findAllById(positions.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        Set<String> newNames = new HashSet<>();
+        positions.forEach((productId, i) -> {
+            Product product = products.get(productId);
+            String name = patches.get(i).getName();
+            if (product != null && name != null && !name.equals(product.getName())
+                    && productNameFilter.mightExist(name)) {
+                newNames.add(name);
+            }
+        });
+        Set<String> takenNames = newNames.isEmpty() ? Set.of() : productRepository.findExistingNames(newNames);
+        Set<String> claimedNames = new HashSet<>();
+
+        Map<Integer, ProductPatchResult> results = new HashMap<>();
+        Map<Long, Product> before = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : positions.entrySet()) {
+            Long productId = entry.getKey();
+            ProductPatch patch = patches.get(entry.getValue());
+            Product product = products.get(productId);
+            if (product == null) {
+                results.put(entry.getValue(), ProductPatchResult.notFound(productId));
+            } else if (patch.getVersion() != null && !patch.getVersion().equals(product.getVersion())) {
+                results.put(entry.getValue(), ProductPatchResult.conflict(productId, product.getVersion(),
+                        "Expected version " + patch.getVersion() + " but found " + product.getVersion()));
+            } else if (patch.getName() != null && !patch.getName().equals(product.getName())
+                    && (takenNames.contains(patch.getName()) || !claimedNames.add(patch.getName()))) {
+                results.put(entry.getValue(), ProductPatchResult.conflict(productId, product.getVersion(),
+                        "Product with name '" + patch.getName() + "' already exists"));
+            } else {
+                before.put(productId, ProductChangedEvent.snapshot(product));
+                applyFields(patch, product);
+            }
+        }
+
+        claimedNames.forEach(productNameFilter::add);
+        productRepository.flush();
+
+        for (Map.Entry<Long, Product> entry : before.entrySet()) {
+            Product product = products.get(entry.getKey());
+            results.put(positions.get(entry.getKey()), ProductPatchResult.ok(product.getProductId(), product.getVersion()));
+            if (!Objects.equals(product.getVersion(), entry.getValue().getVersion())) {
+                eventPublisher.publishEvent(ProductChangedEvent.updated(entry.getValue(), product));
+            }
+        }
+        return results;
+    }
+
+    private static void applyFields(ProductPatch patch, Product product) {
+        if (patch.getName() != null) {
+            product.setName(patch.getName());
+        }
+        if (patch.getDescription() != null) {
+            product.setDescription(patch.getDescription());
+        }
+        if (patch.getPrice() != null) {
+            product.setPrice(patch.getPrice());
+        }
+        if (patch.getCategory() != null) {
+            product.setCategory(patch.getCategory());
+        }
+        if (patch.getStockQuantity() != null) {
+            product.setStockQuantity(patch.getStockQuantity());
+        }
+        if (patch.getBrand() != null) {
+            product.setBrand(patch.getBrand());
+        }
+    }
+
+    private void discardHotStock(List<ProductPatch> patches, Map<Long, Integer> positions) {
+        positions.forEach((productId, i) -> {
+            if (patches.get(i).getStockQuantity() != null) {
+                hotStockCounters.discard(productId);
+            }
+        });
+    }
+}
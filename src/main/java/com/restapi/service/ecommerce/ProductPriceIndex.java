@@ -0,0 +1,313 @@
+package com.restapi.service.ecommerce;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public class ProductPriceIndex {
+
+    private static final String LOAD_SQL =
+            "SELECT product_id, price FROM product WHERE price IS NOT NULL ORDER BY price, product_id";
+    private static final int FETCH_SIZE = 5000;
+
+    @Value("${products.price-index.max-delta:4096}")
+    private int maxDelta;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    // Readers take the snapshot without locking; writers only ever touch its delta, under writeLock
+    private final Object writeLock = new Object();
+    private final AtomicBoolean mergeQueued = new AtomicBoolean();
+    private volatile Snapshot snapshot = new Snapshot(new double[0], new long[0], 0, Delta.EMPTY, new Delta());
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        double[][] prices = {new double[1024]};
+        long[][] ids = {new long[1024]};
+        int[] size = {0};
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOAD_SQL);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            if (size[0] == ids[0].length) {
+                prices[0] = Arrays.copyOf(prices[0], size[0] * 2);
+                ids[0] = Arrays.copyOf(ids[0], size[0] * 2);
+            }
+            prices[0][size[0]] = normalize(rs.getDouble("price"));
+            ids[0][size[0]] = rs.getLong("product_id");
+            size[0]++;
+        }));
+
+        // Writes that landed while loading stay in the delta, which always wins over the arrays
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            snapshot = new Snapshot(prices[0], ids[0], size[0], Delta.EMPTY, current.delta);
+        }
+        ready = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getType()) {
+            case DELETED:
+                put(event.getProductId(), null);
+                break;
+            case CREATED:
+                put(event.getProductId(), event.getAfter().getPrice());
+                break;
+            default:
+                if (!Objects.equals(event.getBefore().getPrice(), event.getAfter().getPrice())) {
+                    put(event.getProductId(), event.getAfter().getPrice());
+                }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Long productId, Double price) {
+        int pending;
+        synchronized (writeLock) {
+            Delta delta = snapshot.delta;
+            delta.put(productId, price == null ? OptionalDouble.empty() : OptionalDouble.of(normalize(price)));
+            pending = delta.prices.size();
+        }
+        // Merging copies the whole index, so it runs on the scheduler rather than on the writer that filled the delta
+        if (pending >= maxDelta && ready && mergeQueued.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                mergeQueued.set(false);
+                merge();
+            }, Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${products.price-index.merge-interval-ms:1000}")
+    public synchronized void merge() {
+        if (!ready) {
+            return;
+        }
+        Snapshot base;
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (current.delta.prices.isEmpty()) {
+                return;
+            }
+            // Freeze the delta so readers keep seeing it while the arrays are rebuilt and new writes start a fresh one
+            base = new Snapshot(current.prices, current.ids, current.size, current.delta, new Delta());
+            snapshot = base;
+        }
+
+        Delta frozen = base.frozen;
+        Iterator<PricedId> added = frozen.sorted.iterator();
+        double[] prices = new double[base.size + frozen.sorted.size()];
+        long[] ids = new long[base.size + frozen.sorted.size()];
+        int size = 0;
+        int i = 0;
+        PricedId next = added.hasNext() ? added.next() : null;
+        while (i < base.size || next != null) {
+            if (i < base.size && frozen.overrides(base.ids[i])) {
+                i++;
+            } else if (next == null || (i < base.size && compare(base.prices[i], base.ids[i], next) < 0)) {
+                prices[size] = base.prices[i];
+                ids[size++] = base.ids[i++];
+            } else {
+                prices[size] = next.price;
+                ids[size++] = next.id;
+                next = added.hasNext() ? added.next() : null;
+            }
+        }
+
+        synchronized (writeLock) {
+            snapshot = new Snapshot(prices, ids, size, Delta.EMPTY, snapshot.delta);
+        }
+    }
+
+    public List<Long> range(double min, double max, int limit) {
+        Snapshot current = snapshot;
+        Delta frozen = current.frozen;
+        // Writers keep going while this runs; an empty delta is left out entirely, otherwise an id that moves
+        // mid-scan could be met twice
+        Delta delta = current.delta.prices.isEmpty() ? Delta.EMPTY : current.delta;
+        Set<Long> emitted = delta == Delta.EMPTY ? null : new HashSet<>();
+
+        Iterator<PricedId> frozenEntries = frozen.between(min, max).iterator();
+        Iterator<PricedId> deltaEntries = delta.between(min, max).iterator();
+        PricedId f = nextFrozen(frozenEntries, delta);
+        PricedId d = nextCurrent(deltaEntries, delta);
+
+        List<Long> result = new ArrayList<>(Math.min(Math.max(limit, 0), 1024));
+        int i = lowerBound(current.prices, current.size, min);
+        while (result.size() < limit) {
+            boolean baseLeft = i < current.size && Double.compare(current.prices[i], max) <= 0;
+            PricedId overlay = f == null ? d : d == null || compare(f.price, f.id, d) < 0 ? f : d;
+            if (!baseLeft && overlay == null) {
+                break;
+            }
+            if (baseLeft && (frozen.overrides(current.ids[i]) || delta.overrides(current.ids[i]))) {
+                i++;
+                continue;
+            }
+            long id;
+            if (overlay == null || (baseLeft && compare(current.prices[i], current.ids[i], overlay) < 0)) {
+                id = current.ids[i++];
+            } else if (overlay == f) {
+                id = f.id;
+                f = nextFrozen(frozenEntries, delta);
+            } else {
+                id = d.id;
+                d = nextCurrent(deltaEntries, delta);
+            }
+            if (emitted == null || emitted.add(id)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    public List<Long> cheapest(int limit) {
+        return range(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, limit);
+    }
+
+    private static PricedId nextFrozen(Iterator<PricedId> entries, Delta delta) {
+        while (entries.hasNext()) {
+            PricedId entry = entries.next();
+            if (!delta.overrides(entry.id)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static PricedId nextCurrent(Iterator<PricedId> entries, Delta delta) {
+        while (entries.hasNext()) {
+            PricedId entry = entries.next();
+            if (delta.isCurrent(entry)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static int lowerBound(double[] prices, int size, double min) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(prices[mid], min) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(double price, long id, PricedId other) {
+        int byPrice = Double.compare(price, other.price);
+        return byPrice != 0 ? byPrice : Long.compare(id, other.id);
+    }
+
+    // Postgres orders -0.0 and 0.0 as equal; Double.compare does not
+    private static double normalize(double price) {
+        return price + 0.0;
+    }
+
+    private static final class Snapshot {
+        private final double[] prices;
+        private final long[] ids;
+        private final int size;
+        private final Delta frozen;
+        private final Delta delta;
+
+        Snapshot(double[] prices, long[] ids, int size, Delta frozen, Delta delta) {
+            this.prices = prices;
+            this.ids = ids;
+            this.size = size;
+            this.frozen = frozen;
+            this.delta = delta;
+        }
+    }
+
+    // Latest price per written id (empty once deleted), plus the priced ones kept in (price, id) order so range
+    // queries can walk them next to the arrays without sorting
+    private static final class Delta {
+        private static final Delta EMPTY = new Delta();
+
+        private final Map<Long, OptionalDouble> prices = new ConcurrentHashMap<>();
+        private final NavigableSet<PricedId> sorted =
+                new ConcurrentSkipListSet<>((left, right) -> compare(left.price, left.id, right));
+
+        // Called under writeLock. The new entry goes in before the old one comes out, and readers only trust an
+        // entry whose price still matches the map
+        void put(long id, OptionalDouble price) {
+            if (price.isPresent()) {
+                sorted.add(new PricedId(id, price.getAsDouble()));
+            }
+            OptionalDouble previous = prices.put(id, price);
+            if (previous != null && previous.isPresent() && !previous.equals(price)) {
+                sorted.remove(new PricedId(id, previous.getAsDouble()));
+            }
+        }
+
+        boolean overrides(long id) {
+            return prices.containsKey(id);
+        }
+
+        boolean isCurrent(PricedId entry) {
+            OptionalDouble price = prices.get(entry.id);
+            return price != null && price.isPresent() && Double.compare(price.getAsDouble(), entry.price) == 0;
+        }
+
+        NavigableSet<PricedId> between(double min, double max) {
+            return sorted.subSet(new PricedId(Long.MIN_VALUE, min), true, new PricedId(Long.MAX_VALUE, max), true);
+        }
+    }
+
+    private static final class PricedId {
+        private final long id;
+        private final double price;
+
+        PricedId(long id, double price) {
+            this.id = id;
+            this.price = price;
+        }
+    }
+}
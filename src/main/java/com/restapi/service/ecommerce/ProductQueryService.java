@@ -0,0 +1,147 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.model.ecommerce.ProductQuery;
+import com.restapi.model.ecommerce.ProductQueryResult;
+import com.restapi.repository.ecommerce.ProductRowMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductQueryService {
+
+    private static final int MAX_LIMIT = 1000;
+
+    @Value("${products.facets.price-buckets:0,25,50,100,250,500,1000}")
+    private List<Double> priceBuckets;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    public ProductQueryResult query(ProductQuery query) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> conditions = new ArrayList<>();
+        if (query.getCategory() != null) {
+            conditions.add("category = :category");
+            params.addValue("category", query.getCategory());
+        }
+        if (query.getBrand() != null) {
+            conditions.add("brand = :brand");
+            params.addValue("brand", query.getBrand());
+        }
+        if (query.getMinPrice() != null) {
+            conditions.add("price >= :minPrice");
+            params.addValue("minPrice", query.getMinPrice());
+        }
+        if (query.getMaxPrice() != null) {
+            conditions.add("price <= :maxPrice");
+            params.addValue("maxPrice", query.getMaxPrice());
+        }
+        if (query.getInStock() != null) {
+            conditions.add(query.getInStock() ? "stock_quantity > 0" : "(stock_quantity IS NULL OR stock_quantity <= 0)");
+        }
+        if (query.getKeyword() != null && !query.getKeyword().isEmpty()) {
+            if (productSearchIndex.isReady()) {
+                List<Long> ids = productSearchIndex.search(query.getKeyword(), null);
+                if (ids.isEmpty()) {
+                    return new ProductQueryResult();
+                }
+                conditions.add("product_id = ANY(:ids)");
+                params.addValue("ids", ids.toArray(new Long[0]));
+            } else {
+                conditions.add("(LOWER(name) LIKE :pattern OR LOWER(description) LIKE :pattern)");
+                params.addValue("pattern", "%" + query.getKeyword().toLowerCase(Locale.ROOT) + "%");
+            }
+        }
+
+        int limit = Math.max(1, Math.min(query.getLimit(), MAX_LIMIT));
+        params.addValue("limit", limit);
+        params.addValue("offset", (long) Math.max(0, query.getPage()) * limit);
+
+        ProductQueryResult result = new ProductQueryResult();
+        Map<Integer, Long> bucketCounts = new TreeMap<>();
+        jdbcTemplate.query(buildSql(conditions), params, rs -> {
+            String kind = rs.getString("kind");
+            long count = rs.getLong("facet_count");
+            switch (kind) {
+                case "item":
+                    result.getItems().add(ProductRowMapper.INSTANCE.mapRow(rs, result.getItems().size()));
+                    break;
+                case "brand":
+                    if (rs.getString("brand") != null) {
+                        result.getBrands().put(rs.getString("brand"), count);
+                    }
+                    break;
+                case "category":
+                    if (rs.getString("category") != null) {
+                        result.getCategories().put(rs.getString("category"), count);
+                    }
+                    break;
+                case "price":
+                    Integer bucket = rs.getObject("price_bucket", Integer.class);
+                    if (bucket != null) {
+                        bucketCounts.put(bucket, count);
+                    }
+                    break;
+                default:
+                    result.setTotal(count);
+            }
+        });
+
+        result.getItems().sort(Comparator.comparing(Product::getProductId));
+        bucketCounts.forEach((bucket, count) -> result.getPriceRanges().put(bucketLabel(bucket), count));
+        result.setBrands(sortByCount(result.getBrands()));
+        result.setCategories(sortByCount(result.getCategories()));
+        return result;
+    }
+
+    private String buildSql(List<String> conditions) {
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        String thresholds = priceBuckets.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return "WITH filtered AS (SELECT product_id, name, description, price, category, stock_quantity, brand, version, "
+                + "width_bucket(price, ARRAY[" + thresholds + "]::float8[]) AS price_bucket FROM product" + where + ") "
+                + "(SELECT 'item' AS kind, product_id, name, description, price, category, stock_quantity, brand, version, "
+                + "NULL::int AS price_bucket, NULL::bigint AS facet_count "
+                + "FROM filtered ORDER BY product_id LIMIT :limit OFFSET :offset) "
+                + "UNION ALL "
+                + "SELECT CASE WHEN GROUPING(brand) = 0 THEN 'brand' WHEN GROUPING(category) = 0 THEN 'category' "
+                + "WHEN GROUPING(price_bucket) = 0 THEN 'price' ELSE 'total' END, "
+                + "NULL::bigint, NULL, NULL, NULL::float8, category, NULL::int, brand, NULL::bigint, price_bucket, COUNT(*) "
+                + "FROM filtered GROUP BY GROUPING SETS ((brand), (category), (price_bucket), ())";
+    }
+
+    private String bucketLabel(int bucket) {
+        if (bucket == 0) {
+            return "<" + format(priceBuckets.get(0));
+        }
+        if (bucket >= priceBuckets.size()) {
+            return ">=" + format(priceBuckets.get(priceBuckets.size() - 1));
+        }
+        return format(priceBuckets.get(bucket - 1)) + "-" + format(priceBuckets.get(bucket));
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static Map<String, Long> sortByCount(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+}
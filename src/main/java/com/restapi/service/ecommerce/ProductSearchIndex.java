@@ -0,0 +1,333 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.repository.ecommerce.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Component
+public class ProductSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+    // Separates the indexed fields, so no gram runs from the end of the name into the description
+    private static final char SEPARATOR = '\n';
+    private static final Slice NONE = new Slice(new long[0], 0);
+    private static final Comparator<ScoredId> RANKING = Comparator.comparingInt((ScoredId match) -> match.score).reversed()
+            .thenComparingLong(match -> match.id);
+
+    private final Map<String, Posting> postings = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedProduct> documents = new ConcurrentHashMap<>();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+    private volatile boolean ready;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuilding = true;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAllOrderedById()) {
+                products.forEach(product -> {
+                    if (!changedDuringRebuild.contains(product.getProductId())) {
+                        index(product);
+                    }
+                    entityManager.detach(product);
+                });
+            }
+        });
+        rebuilding = false;
+        changedDuringRebuild.clear();
+        ready = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+        }
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            remove(event.getProductId());
+        } else if (event.getType() != ProductChangedEvent.Type.STOCK_CHANGED) {
+            index(event.getAfter());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    // Only the grams that differ between the old and new text are touched, so a price or stock change costs nothing here
+    public synchronized void index(Product product) {
+        IndexedProduct document = new IndexedProduct(product.getProductId(),
+                fold(product.getName()), fold(product.getDescription()));
+        IndexedProduct previous = documents.put(document.id, document);
+        Set<String> added = grams(document.text());
+        if (previous != null) {
+            Set<String> removed = grams(previous.text());
+            for (String gram : removed) {
+                if (!added.remove(gram)) {
+                    removeFromPosting(gram, document.id);
+                }
+            }
+        }
+        for (String gram : added) {
+            postings.computeIfAbsent(gram, key -> new Posting()).add(document.id);
+        }
+    }
+
+    public synchronized void remove(Long productId) {
+        IndexedProduct document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String gram : grams(document.text())) {
+            removeFromPosting(gram, productId);
+        }
+    }
+
+    private void removeFromPosting(String gram, long id) {
+        Posting posting = postings.get(gram);
+        if (posting != null && posting.remove(id)) {
+            postings.remove(gram);
+        }
+    }
+
+    public List<Long> search(String keyword, Integer limit) {
+        String term = fold(keyword);
+        // A term shorter than a gram has no posting of its own, so every document is checked instead. That keeps the
+        // substring match of the LIKE this index replaced, inside words and after punctuation too
+        Slice candidates = term.length() < GRAM_SIZE ? null : candidates(term);
+        int count = candidates == null ? documents.size() : candidates.size;
+        int capacity = limit == null ? count : Math.min(Math.max(limit, 0), count);
+        if (capacity == 0) {
+            return new ArrayList<>();
+        }
+        // Only the best matches seen so far are kept, worst on top, so a broad keyword with a small limit neither
+        // allocates per match nor sorts every match
+        PriorityQueue<ScoredId> best = new PriorityQueue<>(capacity + 1, RANKING.reversed());
+        if (candidates == null) {
+            for (IndexedProduct document : documents.values()) {
+                offer(best, capacity, document, term);
+            }
+        } else {
+            for (int i = 0; i < candidates.size; i++) {
+                IndexedProduct document = documents.get(candidates.ids[i]);
+                if (document != null) {
+                    offer(best, capacity, document, term);
+                }
+            }
+        }
+
+        List<ScoredId> matches = new ArrayList<>(best);
+        matches.sort(RANKING);
+        List<Long> ids = new ArrayList<>(matches.size());
+        for (ScoredId match : matches) {
+            ids.add(match.id);
+        }
+        return ids;
+    }
+
+    private static void offer(PriorityQueue<ScoredId> best, int capacity, IndexedProduct document, String term) {
+        int score = document.score(term);
+        if (score <= 0) {
+            return;
+        }
+        long id = document.id;
+        if (best.size() < capacity) {
+            best.add(new ScoredId(id, score));
+        } else {
+            ScoredId worst = best.peek();
+            if (score > worst.score || (score == worst.score && id < worst.id)) {
+                best.poll();
+                best.add(new ScoredId(id, score));
+            }
+        }
+    }
+
+    private Slice candidates(String term) {
+        List<Slice> lists = new ArrayList<>();
+        for (String gram : grams(term)) {
+            Slice ids = slice(gram);
+            if (ids.size == 0) {
+                return NONE;
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.size));
+
+        Slice result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.size > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private Slice slice(String gram) {
+        Posting posting = postings.get(gram);
+        return posting == null ? NONE : posting.current;
+    }
+
+    // Both inputs are sorted; the smaller one is probed into the larger by binary search
+    private static Slice intersect(Slice small, Slice large) {
+        long[] result = new long[small.size];
+        int size = 0;
+        int from = 0;
+        for (int i = 0; i < small.size && from < large.size; i++) {
+            long id = small.ids[i];
+            int at = Arrays.binarySearch(large.ids, from, large.size, id);
+            if (at >= 0) {
+                result[size++] = id;
+                from = at + 1;
+            } else {
+                from = -at - 1;
+            }
+        }
+        return new Slice(result, size);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static String fold(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static class IndexedProduct {
+        private final Long id;
+        private final String name;
+        private final String description;
+
+        IndexedProduct(Long id, String name, String description) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+        }
+
+        String text() {
+            return SEPARATOR + name + SEPARATOR + description;
+        }
+
+        int score(String term) {
+            int score = 0;
+            int position = name.indexOf(term);
+            if (position >= 0) {
+                score += 100;
+                if (name.equals(term)) {
+                    score += 100;
+                } else if (position == 0) {
+                    score += 50;
+                } else if (!Character.isLetterOrDigit(name.charAt(position - 1))) {
+                    score += 25;
+                }
+            }
+            if (description.contains(term)) {
+                score += 10;
+            }
+            return score;
+        }
+    }
+
+    private static class ScoredId {
+        private final long id;
+        private final int score;
+
+        ScoredId(long id, int score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    // The sorted ids of one gram, as primitives. Only the index's synchronized writers change it. Readers take the
+    // current slice, and the part of an array a slice covers is never written again: ids mostly arrive in ascending
+    // order and go into the spare capacity past it, while anything else copies the array
+    private static final class Posting {
+        private volatile Slice current = new Slice(new long[2], 0);
+
+        void add(long id) {
+            Slice slice = current;
+            long[] ids = slice.ids;
+            int size = slice.size;
+            if (size == 0 || ids[size - 1] < id) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size] = id;
+                current = new Slice(ids, size + 1);
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            int insert = -at - 1;
+            long[] grown = new long[Math.max(size + 1, ids.length)];
+            System.arraycopy(ids, 0, grown, 0, insert);
+            grown[insert] = id;
+            System.arraycopy(ids, insert, grown, insert + 1, size - insert);
+            current = new Slice(grown, size + 1);
+        }
+
+        // True once the posting is empty
+        boolean remove(long id) {
+            Slice slice = current;
+            int at = Arrays.binarySearch(slice.ids, 0, slice.size, id);
+            if (at < 0) {
+                return slice.size == 0;
+            }
+            long[] shrunk = new long[Math.max(2, slice.size - 1)];
+            System.arraycopy(slice.ids, 0, shrunk, 0, at);
+            System.arraycopy(slice.ids, at + 1, shrunk, at, slice.size - at - 1);
+            current = new Slice(shrunk, slice.size - 1);
+            return slice.size == 1;
+        }
+    }
+
+    // A sorted prefix of an id array
+    private static final class Slice {
+        private final long[] ids;
+        private final int size;
+
+        Slice(long[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+    }
+}
@@ -1,90 +1,350 @@
 package com.restapi.service.ecommerce;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.restapi.config.ReplicaRouting;
 import com.restapi.model.ecommerce.Product;
 import com.restapi.repository.ecommerce.ProductRepository;
+import com.restapi.repository.ecommerce.ProductRowMapper;
+import com.restapi.util.CursorPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+    private static final String INSERT_SQL =
+            "INSERT INTO product (name, description, price, category, stock_quantity, brand, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, 0) ON CONFLICT (name) DO NOTHING RETURNING *";
+
+    @Value("${products.price-index.hydrate-limit:1000}")
+    private int priceIndexHydrateLimit;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductPriceIndex productPriceIndex;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReplicaRouting replicaRouting;
+
+    @Autowired
+    private ProductNameFilter productNameFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return replicaRouting.read(() -> productRepository.findAll());
     }
 
     public Page<Product> getProductsWithPagination(int page, int limit) {
         Pageable pageable = PageRequest.of(page, limit);
-        return productRepository.findAll(pageable);
+        return replicaRouting.read(() -> productRepository.findAll(pageable));
+    }
+
+    public CursorPage<Product> getProductsAfterCursor(String cursor, String sort, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_CURSOR_PAGE_SIZE));
+        ProductCursor.SortKey sortKey = ProductCursor.SortKey.from(sort);
+        ProductCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            after = ProductCursor.decode(cursor);
+            if (sort != null && !sort.isBlank() && after.getSortKey() != sortKey) {
+                throw new IllegalArgumentException("Cursor was issued for sort key " + after.getSortKey().name().toLowerCase(Locale.ROOT));
+            }
+            sortKey = after.getSortKey();
+        }
+
+        // One extra row tells us whether another page exists without a COUNT query
+        Pageable window = PageRequest.ofSize(size + 1);
+        Pageable firstPage = PageRequest.of(0, size + 1, firstPageSort(sortKey));
+        ProductCursor from = after;
+        List<Product> rows = replicaRouting.read(() -> from == null
+                ? productRepository.findAllBy(firstPage)
+                : findAfter(from, window));
+
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Product> items = rows.subList(0, size);
+        Product last = items.get(size - 1);
+        return new CursorPage<>(items, cursorFor(sortKey, last).encode());
+    }
+
+    private List<Product> findAfter(ProductCursor after, Pageable window) {
+        switch (after.getSortKey()) {
+            case PRICE:
+                if (after.getLastValue() == null) {
+                    return productRepository.findNextWithoutPrice(after.getLastId(), window);
+                }
+                List<Product> priced = productRepository.findNextByPrice(Double.valueOf(after.getLastValue()), after.getLastId(), window);
+                if (priced.size() == window.getPageSize()) {
+                    return priced;
+                }
+                // The priced products ran out on this page, so fill the rest from the start of the unpriced tail
+                List<Product> rows = new ArrayList<>(priced);
+                rows.addAll(productRepository.findNextWithoutPrice(Long.MIN_VALUE,
+                        PageRequest.ofSize(window.getPageSize() - priced.size())));
+                return rows;
+            case NAME:
+                return productRepository.findNextByName(after.getLastValue(), window);
+            default:
+                return productRepository.findNextById(after.getLastId(), window);
+        }
+    }
+
+    private Sort firstPageSort(ProductCursor.SortKey sortKey) {
+        switch (sortKey) {
+            case PRICE:
+                return Sort.by(Sort.Order.asc("price").nullsLast(), Sort.Order.asc("productId"));
+            case NAME:
+                return Sort.by("name");
+            default:
+                return Sort.by("productId");
+        }
+    }
+
+    private ProductCursor cursorFor(ProductCursor.SortKey sortKey, Product last) {
+        switch (sortKey) {
+            case PRICE:
+                return new ProductCursor(sortKey, last.getProductId(),
+                        last.getPrice() == null ? null : last.getPrice().toString());
+            case NAME:
+                return new ProductCursor(sortKey, last.getProductId(), last.getName());
+            default:
+                return new ProductCursor(sortKey, last.getProductId(), null);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportProducts(OutputStream out) throws IOException {
+        long written = 0;
+        try (Stream<Product> products = productRepository.streamAllOrderedById();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             SequenceWriter writer = objectMapper.writerFor(Product.class)
+                     .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                     .withRootValueSeparator("\n")
+                     .writeValues(generator)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                writer.write(product);
+                entityManager.detach(product);
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            if (written > 0) {
+                out.write('\n');
+            }
+        }
+        return written;
     }
 
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productCache.get(id, productRepository::findById);
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return productCache.stats();
     }
 
     public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+        return replicaRouting.read(() -> productRepository.findByCategory(category));
     }
 
     public List<Product> getProductsByBrand(String brand) {
-        return productRepository.findByBrand(brand);
+        return replicaRouting.read(() -> productRepository.findByBrand(brand));
     }
 
     public List<Product> searchProducts(String keyword) {
-        return productRepository.searchByKeyword(keyword);
+        return searchProducts(keyword, null);
+    }
+
+    public List<Product> searchProducts(String keyword, Integer limit) {
+        if (!productSearchIndex.isReady()) {
+            List<Product> products = replicaRouting.read(() -> productRepository.searchByKeyword(keyword));
+            return limit == null || products.size() <= limit ? products : products.subList(0, Math.max(limit, 0));
+        }
+        List<Long> ids = productSearchIndex.search(keyword, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> byId = replicaRouting.read(() -> productRepository.findAllById(ids)).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(product -> product != null)
+                .collect(Collectors.toList());
     }
 
     public List<Product> getProductsByPriceRange(Double min, Double max) {
-        return productRepository.findByPriceBetween(min, max);
+        if (productPriceIndex.isReady()) {
+            List<Long> ids = productPriceIndex.range(min, max, priceIndexHydrateLimit + 1);
+            // Wide ranges are cheaper as one scan than as thousands of cache entries
+            if (ids.size() <= priceIndexHydrateLimit) {
+                return hydrate(ids).stream()
+                        .filter(product -> product.getPrice() != null
+                                && product.getPrice() >= min && product.getPrice() <= max)
+                        .collect(Collectors.toList());
+            }
+        }
+        return replicaRouting.read(() -> productRepository.findByPriceBetween(min, max));
     }
 
     public List<Product> filterByPriceAndBrand(Double price, String brand) {
-        return productRepository.findByPriceAndBrand(price, brand);
+        if (productPriceIndex.isReady()) {
+            List<Long> ids = productPriceIndex.range(price, price, priceIndexHydrateLimit + 1);
+            if (ids.size() <= priceIndexHydrateLimit) {
+                return hydrate(ids).stream()
+                        .filter(product -> price.equals(product.getPrice()) && Objects.equals(brand, product.getBrand()))
+                        .collect(Collectors.toList());
+            }
+        }
+        return replicaRouting.read(() -> productRepository.findByPriceAndBrand(price, brand));
+    }
+
+    public List<Product> getCheapestProducts(int limit) {
+        int size = Math.max(1, Math.min(limit, priceIndexHydrateLimit));
+        if (productPriceIndex.isReady()) {
+            return hydrate(productPriceIndex.cheapest(size));
+        }
+        Pageable cheapestFirst = PageRequest.of(0, size, firstPageSort(ProductCursor.SortKey.PRICE));
+        return replicaRouting.read(() -> productRepository.findAllBy(cheapestFirst)).stream()
+                .filter(product -> product.getPrice() != null)
+                .collect(Collectors.toList());
+    }
+
+    private List<Product> hydrate(List<Long> ids) {
+        return productCache.getAll(ids, missing -> productRepository.findAllById(missing).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity())));
     }
 
     public List<Product> getInStockProducts() {
-        return productRepository.findByStockQuantityGreaterThan(0);
+        return replicaRouting.read(() -> productRepository.findByStockQuantityGreaterThan(0));
     }
 
-    public Product addProduct(Product product) {
-        return productRepository.save(product);
+    @Transactional
+    public Optional<Product> addProduct(Product product) {
+        productNameFilter.add(product.getName());
+        List<Product> rows = jdbcTemplate.query(INSERT_SQL, ps -> {
+            ps.setString(1, product.getName());
+            ps.setString(2, product.getDescription());
+            ps.setObject(3, product.getPrice(), Types.DOUBLE);
+            ps.setString(4, product.getCategory());
+            ps.setObject(5, product.getStockQuantity(), Types.INTEGER);
+            ps.setString(6, product.getBrand());
+        }, ProductRowMapper.INSTANCE);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Product savedProduct = rows.get(0);
+        eventPublisher.publishEvent(ProductChangedEvent.created(savedProduct));
+        return Optional.of(savedProduct);
     }
 
-    public boolean existsByName(String name) {
-        return productRepository.existsByName(name);
+    public Map<String, Boolean> namesExist(Collection<String> names) {
+        Set<String> candidates = names.stream()
+                .filter(productNameFilter::mightExist)
+                .collect(Collectors.toSet());
+        Set<String> existing = candidates.isEmpty() ? Set.of() : productRepository.findExistingNames(candidates);
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        for (String name : names) {
+            result.put(name, existing.contains(name));
+        }
+        return result;
     }
 
+    @Transactional
     public Optional<Product> updateProduct(Long id, Product updatedProduct) {
+        hotStockCounters.discard(id);
         return productRepository.findById(id).map(existingProduct -> {
+            Product before = ProductChangedEvent.snapshot(existingProduct);
             existingProduct.setName(updatedProduct.getName());
             existingProduct.setDescription(updatedProduct.getDescription());
             existingProduct.setPrice(updatedProduct.getPrice());
             existingProduct.setCategory(updatedProduct.getCategory());
             existingProduct.setStockQuantity(updatedProduct.getStockQuantity());
             existingProduct.setBrand(updatedProduct.getBrand());
-            return productRepository.save(existingProduct);
+            Product savedProduct = productRepository.saveAndFlush(existingProduct);
+            hotStockCounters.discard(id);
+            eventPublisher.publishEvent(ProductChangedEvent.updated(before, savedProduct));
+            return savedProduct;
         });
     }
 
+    @Transactional
     public Optional<Product> updateStockQuantity(Long id, Integer quantity) {
+        hotStockCounters.discard(id);
         return productRepository.findById(id).map(product -> {
+            Product before = ProductChangedEvent.snapshot(product);
             product.setStockQuantity(quantity);
-            return productRepository.save(product);
+            Product savedProduct = productRepository.saveAndFlush(product);
+            hotStockCounters.discard(id);
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(before, savedProduct));
+            return savedProduct;
         });
     }
 
+    @Transactional
     public boolean deleteProduct(Long id) {
-        if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
+        hotStockCounters.discard(id);
+        return productRepository.findById(id).map(product -> {
+            Product before = ProductChangedEvent.snapshot(product);
+            productRepository.delete(product);
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(before));
             return true;
-        }
-        return false;
+        }).orElse(false);
     }
 }
@@ -0,0 +1,163 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.model.ecommerce.StockRequest;
+import com.restapi.model.ecommerce.StockUpdateResult;
+import com.restapi.repository.ecommerce.ProductRepository;
+import com.restapi.repository.ecommerce.ProductRowMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class ProductStockService {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE product SET stock_quantity = stock_quantity - ?, version = version + 1 WHERE product_id = ? AND stock_quantity >= ? RETURNING *";
+    private static final String INCREMENT_SQL =
+            "UPDATE product SET stock_quantity = COALESCE(stock_quantity, 0) + ?, version = version + 1 WHERE product_id = ? RETURNING *";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public StockUpdateResult decrement(Long productId, int quantity) {
+        requirePositive(quantity);
+        if (hotStockCounters.isHot(productId)) {
+            return hotStockCounters.adjust(productId, -quantity);
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<Product> rows = jdbcTemplate.query(DECREMENT_SQL, ProductRowMapper.INSTANCE, quantity, productId, quantity);
+            if (rows.isEmpty()) {
+                return failure(productId);
+            }
+            return applied(rows.get(0), -quantity);
+        });
+    }
+
+    public StockUpdateResult increment(Long productId, int quantity) {
+        requirePositive(quantity);
+        if (hotStockCounters.isHot(productId)) {
+            return hotStockCounters.adjust(productId, quantity);
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<Product> rows = jdbcTemplate.query(INCREMENT_SQL, ProductRowMapper.INSTANCE, quantity, productId);
+            if (rows.isEmpty()) {
+                return StockUpdateResult.notFound(productId);
+            }
+            return applied(rows.get(0), quantity);
+        });
+    }
+
+    public List<StockUpdateResult> reserve(List<StockRequest> items) {
+        // Sorted by id so concurrent carts always lock rows in the same order
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockRequest item : items) {
+            if (item.getProductId() == null) {
+                throw new IllegalArgumentException("Product ID is required");
+            }
+            requirePositive(item.getQuantity());
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, StockUpdateResult> results = new TreeMap<>();
+        List<StockRequest> reservedHot = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                if (hotStockCounters.isHot(entry.getKey())) {
+                    StockUpdateResult result = hotStockCounters.adjust(entry.getKey(), -entry.getValue());
+                    if (result.getStatus() != StockUpdateResult.Status.OK) {
+                        release(reservedHot);
+                        return List.of(result);
+                    }
+                    reservedHot.add(new StockRequest(entry.getKey(), entry.getValue()));
+                    results.put(entry.getKey(), result);
+                }
+            }
+        } catch (RuntimeException e) {
+            release(reservedHot);
+            throw e;
+        }
+
+        List<Product> updated = new ArrayList<>();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                    if (hotStockCounters.isHot(entry.getKey())) {
+                        continue;
+                    }
+                    List<Product> rows = jdbcTemplate.query(DECREMENT_SQL, ProductRowMapper.INSTANCE,
+                            entry.getValue(), entry.getKey(), entry.getValue());
+                    if (rows.isEmpty()) {
+                        throw new ReservationFailedException(entry.getKey());
+                    }
+                    updated.add(rows.get(0));
+                }
+                for (Product product : updated) {
+                    results.put(product.getProductId(), applied(product, -quantities.get(product.getProductId())));
+                }
+            });
+        } catch (ReservationFailedException e) {
+            release(reservedHot);
+            return List.of(failure(e.productId));
+        } catch (RuntimeException e) {
+            // A database error, deadlock or lock timeout rolls the rows back too, so the hot quantities go back as well
+            release(reservedHot);
+            throw e;
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    private void release(List<StockRequest> reserved) {
+        for (StockRequest item : reserved) {
+            hotStockCounters.adjust(item.getProductId(), item.getQuantity());
+        }
+    }
+
+    private StockUpdateResult applied(Product after, int delta) {
+        Product before = ProductChangedEvent.snapshot(after);
+        before.setStockQuantity(after.getStockQuantity() - delta);
+        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(before, after));
+        return StockUpdateResult.ok(after.getProductId(), after.getStockQuantity());
+    }
+
+    private StockUpdateResult failure(Long productId) {
+        return productRepository.existsById(productId)
+                ? StockUpdateResult.insufficient(productId)
+                : StockUpdateResult.notFound(productId);
+    }
+
+    private void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+    }
+
+    private static class ReservationFailedException extends RuntimeException {
+        private final Long productId;
+
+        ReservationFailedException(Long productId) {
+            super(null, null, false, false);
+            this.productId = productId;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.restapi.config;
+
+import com.restapi.model.ecommerce.Product;
+import com.restapi.repository.ecommerce.ProductRepository;
+import com.restapi.service.ecommerce.ProductService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingTest {
+
+    private static final String CATEGORY = "replica-routing";
+
+    // Two independent servers rather than a streaming pair: each holds a different row, so a result shows which
+    // database answered. They stop in their own JVM shutdown hook, after @DirtiesContext has closed the context
+    private static final EmbeddedPostgres primary = start();
+    private static final EmbeddedPostgres replica = start();
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> primary.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("products.datasource.replica.url", () -> replica.getJdbcUrl("postgres", "postgres"));
+    }
+
+    @BeforeAll
+    static void seed() {
+        seed(primary, "Primary copy");
+        seed(replica, "Replica copy");
+    }
+
+    @Test
+    @Order(1)
+    void readOnlyReadsThatOptInGoToTheReplica() {
+        assertThat(names(productService.getProductsByCategory(CATEGORY))).containsExactly("Replica copy");
+    }
+
+    @Test
+    @Order(2)
+    void readOnlyTransactionsThatDoNotOptInStayOnThePrimary() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        List<Product> products = transaction.execute(status -> productRepository.findByCategory(CATEGORY));
+        assertThat(names(products)).containsExactly("Primary copy");
+    }
+
+    @Test
+    @Order(3)
+    void writesGoToThePrimary() {
+        Product written = productService.addProduct(new Product(null, "Written copy", null, 1.0, CATEGORY, 1, null))
+                .orElseThrow();
+        productService.updateStockQuantity(written.getProductId(), 7);
+
+        assertThat(stock(primary, "Written copy")).containsExactly(7);
+        assertThat(stock(replica, "Written copy")).isEmpty();
+        // Until max-lag has passed since the write, reads that opt in are kept on the primary so they see it
+        assertThat(names(productService.getProductsByCategory(CATEGORY)))
+                .containsExactlyInAnyOrder("Primary copy", "Written copy");
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void seed(EmbeddedPostgres database, String name) {
+        JdbcTemplate jdbc = new JdbcTemplate(database.getPostgresDatabase());
+        jdbc.execute("CREATE TABLE product (product_id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "name varchar(255) NOT NULL UNIQUE, description varchar(255), price float8, category varchar(255), "
+                + "stock_quantity integer, brand varchar(255), version bigint NOT NULL DEFAULT 0)");
+        jdbc.update("INSERT INTO product (name, price, category, stock_quantity) VALUES (?, 1.0, ?, 1)", name, CATEGORY);
+    }
+
+    private static List<Integer> stock(EmbeddedPostgres database, String name) {
+        return new JdbcTemplate(database.getPostgresDatabase())
+                .queryForList("SELECT stock_quantity FROM product WHERE name = ?", Integer.class, name);
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).collect(Collectors.toList());
+    }
+}
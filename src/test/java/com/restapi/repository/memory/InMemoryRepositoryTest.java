@@ -0,0 +1,179 @@
+package com.restapi.repository.memory;
+
+import com.restapi.model.library.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRepositoryTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 10_000;
+
+    // A small id space, so writers keep landing on the same entities
+    private static final int SEEDED_IDS = 32;
+    private static final int MAX_BOOKS = 64;
+
+    // Few keys, so postings grow past the small immutable sets and keys keep changing hands between writers
+    private static final List<String> ISBNS = List.of("isbn-1", "isbn-2", "isbn-3", "isbn-4", "isbn-5", "isbn-6");
+    private static final List<String> WORDS = List.of("river", "rain", "stone", "storm", "night", "north", "ash");
+    private static final List<String> PREFIXES = List.of("r", "ri", "st", "sto", "n", "no", "a", "x");
+    private static final int FIRST_YEAR = 2000;
+    private static final int YEARS = 10;
+
+    private final InMemoryRepository<Book> books = new InMemoryRepository<>(Book::getId, Book::setId);
+    private final HashIndex<Book, String> byIsbn = books.addHashIndex(Book::getIsbn);
+    private final SortedIndex<Book, Integer> byYear = books.addSortedIndex(Book::getPublicationYear);
+    private final WordIndex<Book> byTitleWords = books.addIndex(new WordIndex<>(Book::getTitle));
+    private final AtomicLong highestId = new AtomicLong(SEEDED_IDS);
+
+    @Test
+    void indexesAgreeWithTheEntitiesAfterConcurrentWrites() throws Exception {
+        for (long id = 1; id <= SEEDED_IDS; id++) {
+            books.save(randomBook(id));
+        }
+
+        runConcurrently(this::operate);
+
+        List<Book> all = books.findAll();
+        assertThat(books.count()).isEqualTo(all.size());
+
+        for (String isbn : ISBNS) {
+            Set<Long> expected = idsWhere(all, book -> isbn.equals(book.getIsbn()));
+            assertThat(byIsbn.ids(isbn)).as("isbn %s", isbn).isEqualTo(expected);
+            assertThat(ids(books.findBy(byIsbn, isbn))).as("findBy %s", isbn).isEqualTo(expected);
+        }
+
+        List<Long> everyYear = byYear.ids(FIRST_YEAR, FIRST_YEAR + YEARS - 1);
+        assertThat(everyYear).doesNotHaveDuplicates().hasSize(all.size());
+        for (int year = FIRST_YEAR; year < FIRST_YEAR + YEARS; year++) {
+            int y = year;
+            Set<Long> expected = idsWhere(all, book -> book.getPublicationYear() == y);
+            assertThat(new HashSet<>(byYear.ids(y, y))).as("year %d", y).isEqualTo(expected);
+        }
+        List<Long> scanned = new ArrayList<>();
+        byYear.scan(null, null, scanned::add);
+        assertThat(scanned).doesNotHaveDuplicates().hasSize(all.size());
+
+        for (String prefix : PREFIXES) {
+            Set<Long> expected = idsWhere(all,
+                    book -> WordIndex.words(book.getTitle()).stream().anyMatch(word -> word.startsWith(prefix)));
+            assertThat(byTitleWords.ids(prefix)).as("prefix %s", prefix).isEqualTo(expected);
+            assertThat(ids(books.findByWordPrefixes(byTitleWords, prefix))).as("prefix search %s", prefix)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void concurrentUpdatesOfOneEntityAreNotLost() throws Exception {
+        Book book = books.save(new Book(null, "Counter", "Author", "isbn-1", 0));
+
+        runConcurrently(() -> books.update(book.getId(), b -> b.setPublicationYear(b.getPublicationYear() + 1)));
+
+        int expected = THREADS * OPERATIONS;
+        assertThat(books.findById(book.getId())).get().extracting(Book::getPublicationYear).isEqualTo(expected);
+        assertThat(byYear.ids(0, expected)).containsExactly(book.getId());
+    }
+
+    @Test
+    void concurrentSavesGetUniqueIds() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        LongAdder saves = new LongAdder();
+
+        runConcurrently(() -> {
+            ids.add(books.save(randomBook(null)).getId());
+            saves.increment();
+        });
+
+        assertThat(saves.sum()).isEqualTo((long) THREADS * OPERATIONS);
+        assertThat(ids).hasSize(THREADS * OPERATIONS);
+        assertThat(books.count()).isEqualTo(THREADS * OPERATIONS);
+        assertThat(ids(books.findAll())).isEqualTo(ids);
+    }
+
+    // Every thread runs the operation OPERATIONS times, all starting together
+    private static void runConcurrently(Runnable operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < OPERATIONS; n++) {
+                        operation.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Saves of new and existing ids, in-place updates that move keys, deletes, and index reads racing all of them
+    private void operate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = 1 + random.nextLong(highestId.get());
+        int choice = random.nextInt(100);
+        if (choice < 20 && books.count() < MAX_BOOKS) {
+            long saved = books.save(randomBook(null)).getId();
+            highestId.accumulateAndGet(saved, Math::max);
+        } else if (choice < 35) {
+            books.save(randomBook(id));
+        } else if (choice < 60) {
+            Book values = randomBook(null);
+            books.update(id, book -> {
+                book.setIsbn(values.getIsbn());
+                book.setTitle(values.getTitle());
+                book.setPublicationYear(values.getPublicationYear());
+            });
+        } else if (choice < 80) {
+            books.deleteById(id);
+        } else {
+            int year = FIRST_YEAR + random.nextInt(YEARS);
+            books.findBy(byIsbn, pick(ISBNS));
+            books.findBetween(byYear, year, year + 2);
+            books.findFirst(byYear, year, null, 5);
+            books.findByWordPrefixes(byTitleWords, pick(PREFIXES));
+        }
+    }
+
+    private static Book randomBook(Long id) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String isbn = random.nextInt(10) == 0 ? null : pick(ISBNS);
+        String title = random.nextInt(10) == 0 ? null : pick(WORDS) + " " + pick(WORDS);
+        return new Book(id, title, "Author", isbn, FIRST_YEAR + random.nextInt(YEARS));
+    }
+
+    private static <E> E pick(List<E> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private static Set<Long> idsWhere(List<Book> books, Predicate<Book> filter) {
+        return books.stream().filter(filter).map(Book::getId).collect(Collectors.toSet());
+    }
+
+    private static Set<Long> ids(List<Book> books) {
+        return books.stream().map(Book::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,56 @@
+package com.restapi.service.ecommerce;
+
+import com.restapi.model.ecommerce.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @BeforeEach
+    void indexProducts() {
+        index.index(product(1L, "Smart-TV", "55 inch panel"));
+        index.index(product(2L, "Monitor", "4k/tv ready"));
+        index.index(product(3L, "Water 500ml", "Still"));
+        index.index(product(4L, "TV", null));
+        index.index(product(5L, "Kettle", "Boils water"));
+    }
+
+    @Test
+    void twoLetterTermsMatchInsideWordsAndAfterPunctuation() {
+        assertThat(index.search("tv", null)).containsExactly(4L, 1L, 2L);
+        assertThat(index.search("ml", null)).containsExactly(3L);
+    }
+
+    @Test
+    void oneLetterTermsMatchAsSubstrings() {
+        assertThat(index.search("K", null)).containsExactly(5L, 2L);
+        assertThat(index.search("q", null)).isEmpty();
+    }
+
+    @Test
+    void hyphenatedTermsMatchTheirText() {
+        assertThat(index.search("smart-tv", null)).containsExactly(1L);
+        assertThat(index.search("4k/tv", null)).containsExactly(2L);
+        assertThat(index.search("rt-t", null)).containsExactly(1L);
+    }
+
+    @Test
+    void limitKeepsTheBestShortTermMatches() {
+        assertThat(index.search("tv", 2)).containsExactly(4L, 1L);
+    }
+
+    @Test
+    void removedProductsNoLongerMatch() {
+        index.remove(4L);
+        assertThat(index.search("tv", null)).containsExactly(1L, 2L);
+        assertThat(index.search("smart", null)).containsExactly(1L);
+    }
+
+    private static Product product(Long id, String name, String description) {
+        return new Product(id, name, description, 1.0, "category", 1, null);
+    }
+}